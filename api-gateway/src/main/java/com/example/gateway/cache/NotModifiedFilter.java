@@ -0,0 +1,63 @@
+package com.example.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Answers a GET whose If-None-Match matches the ETag of the outgoing 200 with 304 and no body,
+ * including responses served by LocalResponseCache (which replays the cached 200 as is).
+ * Runs just outside the cache filter (order -4).
+ */
+@Component
+public class NotModifiedFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        if (request.getMethod() != HttpMethod.GET || ifNoneMatch.isEmpty()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (HttpStatus.OK.equals(getStatusCode()) && matches(ifNoneMatch, getHeaders().getETag())) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                    return Flux.from(body).doOnNext(DataBufferUtils::release).then(getDelegate().setComplete());
+                }
+                return super.writeWith(body);
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    // weak comparison, as RFC 9110 requires for If-None-Match
+    static boolean matches(List<String> ifNoneMatch, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque));
+    }
+
+    @Override
+    public int getOrder() {
+        return -5;
+    }
+}
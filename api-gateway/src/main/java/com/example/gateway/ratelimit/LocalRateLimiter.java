@@ -0,0 +1,112 @@
+package com.example.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token bucket for the RequestRateLimiter filter, one bucket per route and key
+ * (the JWT subject via the default principal key resolver), so no Redis is needed.
+ * Each bucket is a single AtomicLong holding the time the bucket will be full again (GCRA),
+ * updated with compare-and-set instead of a lock. Denied requests get 429 with Retry-After
+ * and count in gateway.ratelimit.rejected{route}; the key is only logged at debug level, as a meter tag
+ * it would create one time series per user.
+ *
+ * Limits are per gateway instance. Per-route limits come from the filter args
+ * local-rate-limiter.replenish-rate / local-rate-limiter.burst-capacity, defaults from gateway.rate-limit.*.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    private static final Logger log = LoggerFactory.getLogger(LocalRateLimiter.class);
+
+    private final MeterRegistry registry;
+    private final Config defaults;
+    private final Cache<String, AtomicLong> buckets;
+
+    public LocalRateLimiter(
+            ConfigurationService configurationService,
+            MeterRegistry registry,
+            @Value("${gateway.rate-limit.replenish-rate:50}") int replenishRate,
+            @Value("${gateway.rate-limit.burst-capacity:100}") int burstCapacity,
+            @Value("${gateway.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${gateway.rate-limit.idle-ms:600000}") long idleMs
+    ) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.registry = registry;
+        this.defaults = new Config().setReplenishRate(replenishRate).setBurstCapacity(burstCapacity);
+        // an evicted bucket comes back full, so idle-ms should exceed the longest refill time (burst / rate)
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaults);
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.getReplenishRate();
+        long capacity = interval * config.getBurstCapacity();
+        AtomicLong fullAt = buckets.get(routeId + ':' + id, key -> new AtomicLong(System.nanoTime()));
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            if (next - now > capacity) {
+                long waitNanos = next - capacity - now;
+                registry.counter("gateway.ratelimit.rejected", "route", routeId).increment();
+                log.debug("Rate limited {} on route {}", id, routeId);
+                return Mono.just(new Response(false, Map.of(
+                        HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000)),
+                        "X-RateLimit-Remaining", "0")));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Mono.just(new Response(true, Map.of(
+                        "X-RateLimit-Remaining", Long.toString((capacity - (next - now)) / interval))));
+            }
+        }
+    }
+
+    public static class Config {
+        private int replenishRate = 1;
+        private int burstCapacity = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            if (replenishRate < 1) {
+                throw new IllegalArgumentException("replenishRate must be at least 1");
+            }
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            if (burstCapacity < 1) {
+                throw new IllegalArgumentException("burstCapacity must be at least 1");
+            }
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.security.GatewayHeaders.EXPIRES;
+import static com.example.security.GatewayHeaders.SCOPE;
+import static com.example.security.GatewayHeaders.SECRET;
+import static com.example.security.GatewayHeaders.SUBJECT;
+import static com.example.security.GatewayHeaders.USERNAME;
+
+/**
+ * Forwards the claims of the verified token as X-Auth-* headers together with X-Gateway-Secret,
+ * so the services can skip decoding the token again (see com.example.security.GatewayClaimsFilter in security-common).
+ * Copies of these headers sent by clients are always dropped; claims are only forwarded when security.gateway.secret is set.
+ */
+@Component
+public class GatewayClaimsFilter implements GlobalFilter, Ordered {
+    private static final List<String> HEADERS = List.of(SECRET, SUBJECT, SCOPE, USERNAME, EXPIRES);
+
+    private final String secret;
+
+    public GatewayClaimsFilter(@Value("${security.gateway.secret:}") String secret) {
+        this.secret = secret;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(auth -> Optional.of(((JwtAuthenticationToken) auth).getToken()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(jwt -> chain.filter(exchange.mutate()
+                        .request(request -> request.headers(headers -> forward(headers, jwt)))
+                        .build()));
+    }
+
+    private void forward(HttpHeaders headers, Optional<Jwt> verified) {
+        HEADERS.forEach(headers::remove);
+        if (secret.isEmpty() || verified.isEmpty() || verified.get().getExpiresAt() == null) {
+            return;
+        }
+        Jwt jwt = verified.get();
+        headers.set(SECRET, secret);
+        headers.set(SUBJECT, jwt.getSubject());
+        headers.set(EXPIRES, Long.toString(jwt.getExpiresAt().getEpochSecond()));
+        if (jwt.getClaimAsString("scope") != null) {
+            headers.set(SCOPE, jwt.getClaimAsString("scope"));
+        }
+        if (jwt.getClaimAsString("username") != null) {
+            headers.set(USERNAME, jwt.getClaimAsString("username"));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -1,18 +1,26 @@
 package com.example.gateway.security;
 
+import com.example.security.CachingJwtDecoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class JwtConfig {
 
     @Bean
-    public JwtDecoder jwtDecoder(@Value("${security.jwt.secret:dev-secret-please-change}") String secret) {
-        return NimbusJwtDecoder.withSecretKey(JwtSecretKeyProvider.getHmacKey(secret)).build();
+    public JwtDecoder jwtDecoder(@Value("${security.jwt.secret:dev-secret-please-change}") String secret,
+                                 @Value("${security.jwt.cache.max-size:10000}") long cacheSize) {
+        return new CachingJwtDecoder(NimbusJwtDecoder.withSecretKey(JwtSecretKeyProvider.getHmacKey(secret)).build(), cacheSize);
     }
-}
-
 
+    // HMAC verification is CPU-only and mostly a cache hit, so it runs inline on the event loop
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(JwtDecoder jwtDecoder) {
+        return token -> Mono.fromCallable(() -> jwtDecoder.decode(token));
+    }
+}
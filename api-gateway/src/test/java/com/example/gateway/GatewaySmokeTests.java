@@ -30,7 +30,8 @@ public class GatewaySmokeTests {
                     "spring.cloud.gateway.routes[0].predicates[0]=Path=/hotels/**",
                     "spring.cloud.gateway.routes[1].id=mock-booking",
                     "spring.cloud.gateway.routes[1].uri=http://localhost:" + port,
-                    "spring.cloud.gateway.routes[1].predicates[0]=Path=/bookings/**"
+                    "spring.cloud.gateway.routes[1].predicates[0]=Path=/bookings/**",
+                    "security.gateway.secret=test-gateway-secret"
             ).applyTo(context.getEnvironment());
         }
     }
@@ -44,6 +45,9 @@ public class GatewaySmokeTests {
         WiremockInitializer.wireMockServer.stubFor(get(urlEqualTo("/hotels/test"))
                 .withHeader("Authorization", matching("Bearer .*"))
                 .withHeader("X-Correlation-Id", matching(".*"))
+                .withHeader("X-Auth-Subject", equalTo("42"))
+                .withHeader("X-Auth-Scope", equalTo("USER"))
+                .withHeader("X-Gateway-Secret", equalTo("test-gateway-secret"))
                 .willReturn(okJson("{\"ok\":true}")));
     }
 
@@ -57,7 +61,8 @@ public class GatewaySmokeTests {
         WebClient client = builder.baseUrl("http://localhost:8080").build();
         String body = client.get()
                 .uri("/hotels/test")
-                .header(HttpHeaders.AUTHORIZATION, "Bearer token123")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                .header("X-Auth-Subject", "1")
                 .header("X-Correlation-Id", java.util.UUID.randomUUID().toString())
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
@@ -65,6 +70,16 @@ public class GatewaySmokeTests {
                 .block();
         org.junit.jupiter.api.Assertions.assertTrue(body.contains("ok"));
     }
+
+    private static String token() {
+        byte[] key = java.util.Arrays.copyOf("dev-secret-please-change".getBytes(java.nio.charset.StandardCharsets.UTF_8), 32);
+        return io.jsonwebtoken.Jwts.builder()
+                .setSubject("42")
+                .claim("scope", "USER")
+                .setExpiration(new java.util.Date(System.currentTimeMillis() + 60_000))
+                .signWith(io.jsonwebtoken.security.Keys.hmacShaKeyFor(key))
+                .compact();
+    }
 }
 
 
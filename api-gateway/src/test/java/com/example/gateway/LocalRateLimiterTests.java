@@ -0,0 +1,52 @@
+package com.example.gateway;
+
+import com.example.gateway.ratelimit.LocalRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+public class LocalRateLimiterTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void burstThenRejectedWithRetryAfter() {
+        // 1 token per second, bucket of 3
+        LocalRateLimiter limiter = new LocalRateLimiter(null, registry, 1, 3, 1000, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.isAllowed("booking-service", "42").block().isAllowed());
+        }
+        RateLimiter.Response denied = limiter.isAllowed("booking-service", "42").block();
+        Assertions.assertFalse(denied.isAllowed());
+        Assertions.assertEquals("1", denied.getHeaders().get("Retry-After"));
+
+        Assertions.assertTrue(limiter.isAllowed("booking-service", "43").block().isAllowed());
+        Assertions.assertTrue(limiter.isAllowed("hotel-service", "42").block().isAllowed());
+        Assertions.assertEquals(1, registry.counter("gateway.ratelimit.rejected", "route", "booking-service").count());
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        LocalRateLimiter limiter = new LocalRateLimiter(null, registry, 1, 50, 1000, 60_000);
+        java.util.concurrent.atomic.AtomicInteger allowed = new java.util.concurrent.atomic.AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.isAllowed("booking-service", "42").block().isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 50 from the burst, at most one more refilled while the threads run
+        Assertions.assertTrue(allowed.get() >= 50 && allowed.get() <= 51, "allowed " + allowed.get());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.gateway;
+
+import com.example.gateway.cache.NotModifiedFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+public class NotModifiedFilterTests {
+
+    private final NotModifiedFilter filter = new NotModifiedFilter();
+
+    // stands in for the proxied or cached 200
+    private final GatewayFilterChain upstream = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setETag("\"0abc\"");
+        return exchange.getResponse().writeWith(Mono.just(
+                DefaultDataBufferFactory.sharedInstance.wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+    };
+
+    @Test
+    void matchingEtag_304WithoutBody() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels/1").ifNoneMatch("\"0abc\""));
+        filter.filter(exchange, upstream).block();
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+        Assertions.assertEquals("", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void otherEtag_fullResponse() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/hotels/1").ifNoneMatch("\"0old\""));
+        filter.filter(exchange, upstream).block();
+
+        Assertions.assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        Assertions.assertEquals("{\"id\":1}", exchange.getResponse().getBodyAsString().block());
+    }
+}
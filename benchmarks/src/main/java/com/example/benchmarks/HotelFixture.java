@@ -0,0 +1,108 @@
+package com.example.benchmarks;
+
+import com.example.hotel.HotelServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * hotel-service context on a private in-memory H2 database, pre-filled with rooms and lock rows.
+ * Seeded locks start tomorrow, since the occupancy index only loads locks that have not ended;
+ * dates from freeFrom() on are left free for the benchmarks.
+ * Rows are inserted with JDBC batches by a first context, then a second context is started on the same
+ * database so the occupancy index loads them the way it does on a real startup.
+ */
+final class HotelFixture implements AutoCloseable {
+    private static final LocalDate SEEDED_FROM = LocalDate.now().plusDays(1);
+    private static final int BATCH = 10_000;
+
+    private final ConfigurableApplicationContext context;
+    private final long[] roomIds;
+    private final LocalDate freeFrom;
+
+    private HotelFixture(ConfigurableApplicationContext context, LocalDate freeFrom) {
+        this.context = context;
+        this.freeFrom = freeFrom;
+        this.roomIds = context.getBean(JdbcTemplate.class)
+                .queryForList("select id from room order by id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    static HotelFixture start(int rooms, int lockRows) {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        try (ConfigurableApplicationContext seeding = boot(url)) {
+            seed(seeding.getBean(JdbcTemplate.class), rooms, lockRows);
+        }
+        return new HotelFixture(boot(url), SEEDED_FROM.plusDays(2L * ((lockRows + rooms - 1) / rooms)));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    long roomId(long n) {
+        return roomIds[(int) (n % roomIds.length)];
+    }
+
+    /**
+     * First day after the seeded slots.
+     */
+    LocalDate freeFrom() {
+        return freeFrom;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    // Passed as command-line arguments so they override application.yml. The servlet context is kept
+    // because SecurityConfig needs HttpSecurity; it listens on a random port.
+    private static ConfigurableApplicationContext boot(String url) {
+        return new SpringApplicationBuilder(HotelServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--spring.cloud.discovery.enabled=false",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    // Lock n goes to room n % rooms on its own two-day slot, so seeded rows never overlap; every tenth is RELEASED.
+    private static void seed(JdbcTemplate jdbc, int roomCount, int lockRows) {
+        jdbc.update("insert into hotel (name, city, address) values ('Bench', 'Bench', 'Bench')");
+        Long hotelId = jdbc.queryForObject("select max(id) from hotel", Long.class);
+        List<Object[]> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Object[]{hotelId, "B" + i, 2, (i * 7919L) % 1000, true});
+        }
+        jdbc.batchUpdate("insert into room (hotel_id, number, capacity, times_booked, available) values (?, ?, ?, ?, ?)", rooms);
+        List<Long> roomIds = jdbc.queryForList("select id from room order by id", Long.class);
+
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int n = 0; n < lockRows; n++) {
+            LocalDate start = SEEDED_FROM.plusDays(2L * (n / roomCount));
+            batch.add(new Object[]{"seed-" + n, roomIds.get(n % roomCount), Date.valueOf(start), Date.valueOf(start.plusDays(1)),
+                    n % 10 == 0 ? "RELEASED" : "CONFIRMED"});
+            if (batch.size() == BATCH) {
+                insertLocks(jdbc, batch);
+                batch.clear();
+            }
+        }
+        insertLocks(jdbc, batch);
+    }
+
+    private static void insertLocks(JdbcTemplate jdbc, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate("insert into room_reservation_lock (request_id, room_id, start_date, end_date, status) values (?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
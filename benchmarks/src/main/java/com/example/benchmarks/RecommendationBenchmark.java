@@ -0,0 +1,72 @@
+package com.example.benchmarks;
+
+import com.example.hotel.model.Room;
+import com.example.hotel.repo.RoomRepository;
+import com.example.hotel.service.HotelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room ordering by timesBooked: the database-ordered recommendation query, an in-memory sort
+ * of all rooms (what /rooms/recommend and /stats/rooms/popular used to do) and a page of the popularity query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RecommendationBenchmark {
+    private static final int TOP = 20;
+
+    @Param({"1000", "100000"})
+    public int rooms;
+
+    private HotelFixture fixture;
+    private HotelService hotelService;
+    private List<Room> allRooms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = HotelFixture.start(rooms, 0);
+        hotelService = fixture.bean(HotelService.class);
+        allRooms = fixture.bean(RoomRepository.class).findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Room> recommendedQuery() {
+        return hotelService.getRecommendedRooms();
+    }
+
+    @Benchmark
+    public List<Room> inMemorySort() {
+        return allRooms.stream()
+                .sorted(Comparator.comparingLong(Room::getTimesBooked).thenComparing(Room::getId))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Room> popularTop() {
+        return hotelService.getPopularRooms(0, TOP);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.benchmarks;
+
+import com.example.hotel.model.RoomReservationLock;
+import com.example.hotel.service.HotelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * holdRoom / confirmHold / releaseHold through the transactional HotelService bean,
+ * against a lock table pre-filled with lockRows rows.
+ * Every invocation books its own free slot, so results do not depend on conflicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReservationBenchmark {
+    private static final int ROOMS = 1_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int lockRows;
+
+    private HotelFixture fixture;
+    private HotelService hotelService;
+    private final AtomicLong slots = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = HotelFixture.start(ROOMS, lockRows);
+        hotelService = fixture.bean(HotelService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public RoomReservationLock hold() {
+        long slot = slots.getAndIncrement();
+        return hotelService.holdRoom("bench-" + slot, fixture.roomId(slot), start(slot), start(slot).plusDays(1));
+    }
+
+    @Benchmark
+    public RoomReservationLock holdConfirm() {
+        long slot = slots.getAndIncrement();
+        String requestId = "bench-" + slot;
+        hotelService.holdRoom(requestId, fixture.roomId(slot), start(slot), start(slot).plusDays(1));
+        return hotelService.confirmHold(requestId);
+    }
+
+    @Benchmark
+    public RoomReservationLock holdRelease() {
+        long slot = slots.getAndIncrement();
+        String requestId = "bench-" + slot;
+        hotelService.holdRoom(requestId, fixture.roomId(slot), start(slot), start(slot).plusDays(1));
+        return hotelService.releaseHold(requestId);
+    }
+
+    private LocalDate start(long slot) {
+        return fixture.freeFrom().plusDays(2 * (slot / ROOMS));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.booking.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * WebClient for hotel-service calls on a dedicated, bounded reactor-netty pool.
+ * Connect and response timeouts are enforced by Netty so a timed-out call also frees its connection;
+ * with hotel.http2 the client upgrades to h2c, falling back to HTTP/1.1, and multiplexes calls.
+ * Calls go through the hotelCircuitBreaker and hotelBulkhead, published as resilience4j.circuitbreaker.*
+ * and resilience4j.bulkhead.* metrics with name=hotel-service.
+ */
+@Configuration
+public class HotelClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider hotelConnectionProvider(
+            @Value("${hotel.pool.max-connections:200}") int maxConnections,
+            @Value("${hotel.pool.pending-acquire-max:1000}") int pendingAcquireMax,
+            @Value("${hotel.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+            @Value("${hotel.pool.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${hotel.pool.max-life-time-ms:300000}") long maxLifeTimeMs,
+            @Value("${hotel.pool.evict-in-background-ms:30000}") long evictInBackgroundMs
+    ) {
+        // maxConnections and pendingAcquireMaxCount apply per remote host.
+        return ConnectionProvider.builder("hotel-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient hotelWebClient(
+            WebClient.Builder builder,
+            ConnectionProvider hotelConnectionProvider,
+            @Value("${hotel.base-url}") String hotelBaseUrl,
+            @Value("${hotel.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${hotel.timeout-ms}") long timeoutMs,
+            @Value("${hotel.http2:true}") boolean http2
+    ) {
+        HttpClient httpClient = HttpClient.create(hotelConnectionProvider)
+                .protocol(http2 ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11} : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .responseTimeout(Duration.ofMillis(timeoutMs));
+        return builder
+                .baseUrl(hotelBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean
+    public CircuitBreakerRegistry hotelCircuitBreakerRegistry(
+            @Value("${hotel.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${hotel.circuit-breaker.slow-call-duration-ms:1000}") long slowCallDurationMs,
+            @Value("${hotel.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${hotel.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${hotel.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${hotel.circuit-breaker.open-state-ms:10000}") long openStateMs,
+            @Value("${hotel.circuit-breaker.half-open-calls:5}") int halfOpenCalls
+    ) {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A 4xx is hotel-service answering (conflict, not found), not hotel-service failing.
+                .recordException(e -> !(e instanceof WebClientResponseException w && w.getStatusCode().is4xxClientError()))
+                .build());
+    }
+
+    @Bean
+    public CircuitBreaker hotelCircuitBreaker(CircuitBreakerRegistry hotelCircuitBreakerRegistry) {
+        return hotelCircuitBreakerRegistry.circuitBreaker("hotel-service");
+    }
+
+    @Bean
+    public BulkheadRegistry hotelBulkheadRegistry(
+            @Value("${hotel.bulkhead.max-concurrent-calls:100}") int maxConcurrentCalls,
+            @Value("${hotel.bulkhead.max-wait-ms:0}") long maxWaitMs
+    ) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build());
+    }
+
+    @Bean
+    public Bulkhead hotelBulkhead(BulkheadRegistry hotelBulkheadRegistry) {
+        return hotelBulkheadRegistry.bulkhead("hotel-service");
+    }
+
+    @Bean
+    public MeterBinder hotelCircuitBreakerMetrics(CircuitBreakerRegistry hotelCircuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(hotelCircuitBreakerRegistry);
+    }
+
+    @Bean
+    public MeterBinder hotelBulkheadMetrics(BulkheadRegistry hotelBulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(hotelBulkheadRegistry);
+    }
+}
@@ -5,7 +5,11 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(name = "uk_booking_request", columnNames = {"requestId"}))
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_booking_request", columnNames = {"requestId"}),
+        indexes = {
+                @Index(name = "idx_booking_user_start", columnList = "userId, startDate"),
+                @Index(name = "idx_booking_status", columnList = "status")
+        })
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
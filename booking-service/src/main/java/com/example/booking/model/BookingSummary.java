@@ -0,0 +1,8 @@
+package com.example.booking.model;
+
+import java.time.LocalDate;
+
+/**
+ * Compact booking view for history listings, selected directly by the query instead of loading entities.
+ */
+public record BookingSummary(Long id, String requestId, Long roomId, LocalDate startDate, LocalDate endDate, Booking.Status status) {}
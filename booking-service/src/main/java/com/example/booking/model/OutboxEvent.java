@@ -0,0 +1,53 @@
+package com.example.booking.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A hotel-service call owed by a booking state change, written in the same transaction as that change
+ * and delivered by OutboxRelay. Rows are deleted once delivered.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_next_attempt", columnList = "nextAttemptAt"))
+public class OutboxEvent {
+    public static final int LAST_ERROR_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private String requestId;
+    private Long roomId;
+    private String correlationId;
+
+    private int attempts;
+    private Instant nextAttemptAt;
+    @Column(length = LAST_ERROR_LENGTH)
+    private String lastError;
+
+    private Instant createdAt;
+
+    public enum Type { RELEASE_ROOM }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+    public Long getRoomId() { return roomId; }
+    public void setRoomId(Long roomId) { this.roomId = roomId; }
+    public String getCorrelationId() { return correlationId; }
+    public void setCorrelationId(String correlationId) { this.correlationId = correlationId; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Instant nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,35 @@
+package com.example.booking.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A long-lived refresh token issued at login. Only the SHA-256 of the token is stored;
+ * the row is replaced on every refresh and deleted on logout or expiry.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_token_expires", columnList = "expiresAt")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String tokenHash;
+    private Long userId;
+    private Instant expiresAt;
+    private Instant createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -1,14 +1,42 @@
 package com.example.booking.repo;
 
 import com.example.booking.model.Booking;
+import com.example.booking.model.BookingSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByRequestId(String requestId);
-    List<Booking> findByUserId(Long userId);
+    List<Booking> findByRequestIdIn(Collection<String> requestIds);
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * A user's bookings starting within [from, to] (either bound optional) with one of the statuses, by id after afterId.
+     * Served by idx_booking_user_start.
+     */
+    @Query("""
+            select new com.example.booking.model.BookingSummary(b.id, b.requestId, b.roomId, b.startDate, b.endDate, b.status)
+            from Booking b
+            where b.userId = :userId
+              and (:from is null or b.startDate >= :from)
+              and (:to is null or b.startDate <= :to)
+              and b.status in :statuses
+              and b.id > :afterId
+            order by b.id
+            """)
+    List<BookingSummary> findSummaries(@Param("userId") Long userId,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("statuses") Collection<Booking.Status> statuses,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
 }
 
 
@@ -0,0 +1,12 @@
+package com.example.booking.repo;
+
+import com.example.booking.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant now, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.example.booking.repo;
+
+import com.example.booking.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Returns 1 for the caller that actually removed the row, so only one of two concurrent refreshes wins.
+     */
+    @Modifying
+    @Query("delete from RefreshToken t where t.id = :id")
+    int deleteOnce(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,12 +1,15 @@
 package com.example.booking.repo;
 
 import com.example.booking.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
 
 
@@ -1,25 +1,58 @@
 package com.example.booking.service;
 
+import com.example.booking.model.RefreshToken;
 import com.example.booking.model.User;
+import com.example.booking.repo.RefreshTokenRepository;
 import com.example.booking.repo.UserRepository;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 
 @Service
 public class AuthService {
     private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
     private final SecretKey key;
+    private final long accessTtlSeconds;
+    private final long refreshTtlSeconds;
+    private final SecureRandom random = new SecureRandom();
 
-    public AuthService(UserRepository userRepository, org.springframework.beans.factory.annotation.Value("${security.jwt.secret}") String secret) {
+    public AuthService(
+            UserRepository userRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            PasswordHasher passwordHasher,
+            TransactionTemplate transactionTemplate,
+            @Value("${security.jwt.secret}") String secret,
+            @Value("${security.jwt.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${security.jwt.refresh-ttl-seconds:2592000}") long refreshTtlSeconds
+    ) {
         this.userRepository = userRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = transactionTemplate;
+        this.accessTtlSeconds = accessTtlSeconds;
+        this.refreshTtlSeconds = refreshTtlSeconds;
         byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
         if (bytes.length < 32) {
             byte[] padded = new byte[32];
@@ -29,31 +62,114 @@ public class AuthService {
         this.key = Keys.hmacShaKeyFor(bytes);
     }
 
-    public User register(String username, String password, boolean admin) {
-        User u = new User();
-        u.setUsername(username);
-        u.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt()));
-        u.setRole(admin ? "ADMIN" : "USER");
-        return userRepository.save(u);
+    public Mono<User> register(String username, String password, boolean admin) {
+        return passwordHasher.hash(password).flatMap(hash -> blocking(() -> {
+            User u = new User();
+            u.setUsername(username);
+            u.setPasswordHash(hash);
+            u.setRole(admin ? "ADMIN" : "USER");
+            return userRepository.save(u);
+        }));
     }
 
-    public String login(String username, String password) {
-        User u = userRepository.findByUsername(username).orElseThrow(() -> new IllegalArgumentException("User not found"));
-        if (!BCrypt.checkpw(password, u.getPasswordHash())) {
-            throw new IllegalArgumentException("Bad credentials");
+    /**
+     * Access token plus a refresh token; expiresIn is the access token lifetime in seconds.
+     */
+    public record Tokens(String accessToken, String refreshToken, long expiresIn) {}
+
+    /**
+     * Checks the password on the hashing pool and issues tokens; fails with IllegalArgumentException on unknown users
+     * or bad credentials. A hash stored with another cost is replaced before the tokens are issued.
+     */
+    public Mono<Tokens> login(String username, String password) {
+        return blocking(() -> userRepository.findByUsername(username).orElse(null))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("User not found")))
+                .flatMap(u -> passwordHasher.matches(password, u.getPasswordHash()).flatMap(matches -> {
+                    if (!matches) {
+                        return Mono.error(new IllegalArgumentException("Bad credentials"));
+                    }
+                    if (!passwordHasher.needsRehash(u.getPasswordHash())) {
+                        return blocking(() -> issue(u));
+                    }
+                    return passwordHasher.hash(password).flatMap(hash -> blocking(() -> {
+                        u.setPasswordHash(hash);
+                        userRepository.save(u);
+                        return issue(u);
+                    }));
+                }));
+    }
+
+    /**
+     * Swaps a refresh token for new tokens without a password check. The old refresh token is consumed,
+     * so a stolen one stops working after the next refresh by its owner. Empty when the token is unknown or expired.
+     * Consuming the old token and issuing the new one commit together, on boundedElastic.
+     */
+    public Mono<Tokens> refresh(String refreshToken) {
+        if (refreshToken == null) {
+            return Mono.empty();
+        }
+        return blocking(() -> transactionTemplate.execute(status -> {
+            Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(digest(refreshToken));
+            if (stored.isEmpty() || refreshTokenRepository.deleteOnce(stored.get().getId()) == 0
+                    || stored.get().getExpiresAt().isBefore(Instant.now())) {
+                return null;
+            }
+            return userRepository.findById(stored.get().getUserId()).map(this::issue).orElse(null);
+        }));
+    }
+
+    public Mono<Void> logout(String refreshToken) {
+        if (refreshToken == null) {
+            return Mono.empty();
         }
+        return blocking(() -> transactionTemplate.execute(status -> {
+            refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                    .ifPresent(stored -> refreshTokenRepository.deleteOnce(stored.getId()));
+            return null;
+        })).then();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-purge-ms:3600000}")
+    @Transactional
+    public void purgeExpiredRefreshTokens() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private Tokens issue(User u) {
         Instant now = Instant.now();
-        return Jwts.builder()
+        String accessToken = Jwts.builder()
                 .setSubject(u.getId().toString())
                 .addClaims(Map.of(
                         "scope", u.getRole(),
                         "username", u.getUsername()
                 ))
                 .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(now.plusSeconds(3600)))
+                .setExpiration(Date.from(now.plusSeconds(accessTtlSeconds)))
                 .signWith(key)
                 .compact();
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        RefreshToken stored = new RefreshToken();
+        stored.setTokenHash(digest(refreshToken));
+        stored.setUserId(u.getId());
+        stored.setCreatedAt(now);
+        stored.setExpiresAt(now.plusSeconds(refreshTtlSeconds));
+        refreshTokenRepository.save(stored);
+        return new Tokens(accessToken, refreshToken, accessTtlSeconds);
     }
-}
 
+    // Repository calls run on boundedElastic, never on the event loop or the hashing pool.
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
 
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
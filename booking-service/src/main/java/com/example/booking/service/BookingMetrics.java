@@ -0,0 +1,100 @@
+package com.example.booking.service;
+
+import com.example.booking.model.Booking;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Saga instrumentation:
+ * booking.saga.step{step, outcome} times each database and hotel-service step (hotel steps include retries),
+ * booking.saga{operation, status} times a whole booking, booking.outcomes{operation, status} counts results,
+ * booking.hotel.retries{step} and booking.compensations{result} count retries and compensations,
+ * booking.hotel.hedges{read, result} counts hedged reads sent and won.
+ * auth.password.hash{operation} times BCrypt work and auth.password.rejected counts sign-ins turned away by a full hashing queue.
+ */
+@Component
+public class BookingMetrics {
+    private final MeterRegistry registry;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Times the Mono from subscription to its terminal signal.
+     */
+    public <T> Mono<T> step(String step, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono.doFinally(signal -> sample.stop(Timer.builder("booking.saga.step")
+                    .tag("step", step)
+                    .tag("outcome", outcome(signal))
+                    .register(registry)));
+        });
+    }
+
+    /**
+     * Times a whole booking flow and counts it by the final booking status, or ERROR if it failed without one.
+     */
+    public Mono<Booking> saga(String operation, Mono<Booking> saga) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return saga
+                    .doOnNext(booking -> {
+                        sample.stop(sagaTimer(operation, booking.getStatus().name()));
+                        outcome(operation, booking.getStatus());
+                    })
+                    .doOnError(e -> {
+                        sample.stop(sagaTimer(operation, "ERROR"));
+                        registry.counter("booking.outcomes", "operation", operation, "status", "ERROR").increment();
+                    });
+        });
+    }
+
+    public void outcome(String operation, Booking.Status status) {
+        registry.counter("booking.outcomes", "operation", operation, "status", status.name()).increment();
+    }
+
+    public void retry(String step) {
+        registry.counter("booking.hotel.retries", "step", step).increment();
+    }
+
+    public void hedge(String read, String result) {
+        registry.counter("booking.hotel.hedges", "read", read, "result", result).increment();
+    }
+
+    public void compensation(boolean released) {
+        registry.counter("booking.compensations", "result", released ? "released" : "release-failed").increment();
+    }
+
+    public <T> T passwordHash(String operation, Callable<T> work) throws Exception {
+        return Timer.builder("auth.password.hash")
+                .tag("operation", operation)
+                .register(registry)
+                .recordCallable(work);
+    }
+
+    public void passwordHashRejected() {
+        registry.counter("auth.password.rejected").increment();
+    }
+
+    private Timer sagaTimer(String operation, String status) {
+        return Timer.builder("booking.saga")
+                .tag("operation", operation)
+                .tag("status", status)
+                .register(registry);
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.booking.service;
+
+import com.example.booking.model.Booking;
+import com.example.booking.model.OutboxEvent;
+import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cancels bookings and queues the matching room release in one local transaction;
+ * OutboxRelay delivers the release to hotel-service afterwards.
+ */
+@Service
+public class BookingOutbox {
+    private final BookingRepository bookingRepository;
+    private final OutboxEventRepository outboxRepository;
+
+    public BookingOutbox(BookingRepository bookingRepository, OutboxEventRepository outboxRepository) {
+        this.bookingRepository = bookingRepository;
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional
+    public Booking cancel(Booking booking, String correlationId) {
+        booking.setStatus(Booking.Status.CANCELLED);
+        Booking saved = bookingRepository.save(booking);
+        outboxRepository.save(release(saved, correlationId));
+        return saved;
+    }
+
+    @Transactional
+    public List<Booking> cancelAll(List<Booking> bookings, String correlationId) {
+        bookings.forEach(b -> b.setStatus(Booking.Status.CANCELLED));
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        outboxRepository.saveAll(saved.stream().map(b -> release(b, correlationId)).toList());
+        return saved;
+    }
+
+    private static OutboxEvent release(Booking booking, String correlationId) {
+        Instant now = Instant.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setType(OutboxEvent.Type.RELEASE_ROOM);
+        event.setRequestId(booking.getRequestId());
+        event.setRoomId(booking.getRoomId());
+        event.setCorrelationId(correlationId);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        return event;
+    }
+}
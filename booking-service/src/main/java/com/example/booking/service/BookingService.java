@@ -1,66 +1,157 @@
 package com.example.booking.service;
 
 import com.example.booking.model.Booking;
+import com.example.booking.model.CreateBookingRequest;
+import com.example.booking.model.OutboxEvent;
 import com.example.booking.repo.BookingRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class BookingService {
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
     private final BookingRepository bookingRepository;
+    private final BookingMetrics metrics;
+    private final BookingOutbox outbox;
     private final WebClient webClient;
-    private final String hotelBaseUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final HedgedReads hedgedReads;
     private final int retries;
     private final Duration timeout;
+    private final int maxBatchSize;
+    private final boolean singlePhaseReserve;
+    private final EndpointProbe reserveEndpoint;
+    private final EndpointProbe allocateEndpoint;
 
     public BookingService(
             BookingRepository bookingRepository,
-            WebClient.Builder builder,
-            @Value("${hotel.base-url}") String hotelBaseUrl,
+            BookingMetrics metrics,
+            BookingOutbox outbox,
+            WebClient hotelWebClient,
+            CircuitBreaker hotelCircuitBreaker,
+            Bulkhead hotelBulkhead,
+            HedgedReads hedgedReads,
             @Value("${hotel.timeout-ms}") int timeoutMs,
-            @Value("${hotel.retries}") int retries
+            @Value("${hotel.retries}") int retries,
+            @Value("${hotel.single-phase-reserve:true}") boolean singlePhaseReserve,
+            @Value("${hotel.endpoint-reprobe-ms:60000}") long reprobeMs,
+            @Value("${booking.batch.max-size:100}") int maxBatchSize
     ) {
         this.bookingRepository = bookingRepository;
-        this.webClient = builder.baseUrl(hotelBaseUrl).build();
-        this.hotelBaseUrl = hotelBaseUrl;
+        this.metrics = metrics;
+        this.outbox = outbox;
+        this.webClient = hotelWebClient;
+        this.circuitBreaker = hotelCircuitBreaker;
+        this.bulkhead = hotelBulkhead;
+        this.hedgedReads = hedgedReads;
         this.retries = retries;
         this.timeout = Duration.ofMillis(timeoutMs);
+        this.maxBatchSize = maxBatchSize;
+        this.singlePhaseReserve = singlePhaseReserve;
+        this.reserveEndpoint = new EndpointProbe(Duration.ofMillis(reprobeMs));
+        this.allocateEndpoint = new EndpointProbe(Duration.ofMillis(reprobeMs));
     }
 
-    @Transactional
-    public Booking createBooking(Long userId, Long roomId, LocalDate start, LocalDate end, String requestId, boolean autoSelect) {
+    /**
+     * Runs the booking saga without holding a request thread or a JDBC connection across hotel-service calls:
+     * PENDING is written in its own short transaction, hold and confirm are chained reactively,
+     * and the final status is persisted in a second short transaction.
+     * While the hotel-service circuit is open a new booking fails with 503 before anything is written,
+     * and a request with missing or inverted dates, or without a room when autoSelect is false, fails with 400.
+     */
+    public Mono<Booking> createBooking(Long userId, Long roomId, LocalDate start, LocalDate end, String requestId, boolean autoSelect) {
         String correlationId = UUID.randomUUID().toString();
+        String invalid = validate(roomId, start, end, autoSelect);
+        if (invalid != null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, invalid));
+        }
+        Long selectedRoomId = autoSelect ? null : roomId;
 
-        Booking existing = bookingRepository.findByRequestId(requestId).orElse(null);
-        if (existing != null) {
-            return existing;
+        return metrics.step("lookup", blocking(() -> bookingRepository.findByRequestId(requestId)))
+                .flatMap(existing -> existing.map(Mono::just).orElseGet(() -> hotelAvailable().then(metrics.saga("create",
+                        savePending(userId, selectedRoomId, start, end, requestId, correlationId).flatMap(this::process)))));
+    }
+
+    // Null when the request can be booked; checked before a PENDING row is written.
+    private static String validate(Long roomId, LocalDate start, LocalDate end, boolean autoSelect) {
+        if (start == null || end == null) {
+            return "startDate and endDate are required";
+        }
+        if (!end.isAfter(start)) {
+            return "endDate must be after startDate";
         }
+        if (!autoSelect && roomId == null) {
+            return "Room ID is required when autoSelect is false";
+        }
+        return null;
+    }
 
-        if (autoSelect) {
-            log.info("[{}] Auto-selecting room", correlationId);
-            roomId = selectBestAvailableRoom(correlationId);
-            log.info("[{}] Auto-selected room ID: {}", correlationId, roomId);
-        } else {
-            if (roomId == null) {
-                throw new IllegalArgumentException("Room ID is required when autoSelect is false");
-            }
-            log.info("[{}] Using manually selected room ID: {}", correlationId, roomId);
+    private Mono<Void> hotelAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN) {
+            return Mono.error(unavailable());
         }
+        return Mono.empty();
+    }
 
+    private static ResponseStatusException unavailable() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "hotel-service is unavailable, retry later");
+    }
+
+    private Mono<Booking> savePending(Long userId, Long roomId, LocalDate start, LocalDate end, String requestId, String correlationId) {
+        Booking booking = newBooking(userId, roomId, start, end, requestId, correlationId);
+        return metrics.step("save-pending", blocking(() -> bookingRepository.save(booking)))
+                .doOnNext(saved -> log.info("[{}] Booking PENDING created for room {}", correlationId, roomId));
+    }
+
+    /**
+     * Books a saved PENDING booking: the saga for a chosen room, allocation otherwise.
+     * Any failure after the PENDING row exists, including one while building the hotel-service calls,
+     * cancels the booking and queues the room release. If the circuit breaker or the bulkhead rejected a call,
+     * the cancelled booking is reported as 503 like a rejection up front, so the client knows to retry later.
+     */
+    private Mono<Booking> process(Booking booking) {
+        return Mono.defer(() -> booking.getRoomId() == null ? runAllocation(booking) : runSaga(booking))
+                .onErrorResume(e -> compensate(booking, e)
+                        .flatMap(cancelled -> isRejected(e) ? Mono.<Booking>error(unavailable()) : Mono.just(cancelled)));
+    }
+
+    private static boolean isRejected(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    private static Booking newBooking(Long userId, Long roomId, LocalDate start, LocalDate end, String requestId, String correlationId) {
         Booking booking = new Booking();
         booking.setRequestId(requestId);
         booking.setUserId(userId);
@@ -70,54 +161,230 @@ public class BookingService {
         booking.setStatus(Booking.Status.PENDING);
         booking.setCorrelationId(correlationId);
         booking.setCreatedAt(java.time.OffsetDateTime.now());
-        booking = bookingRepository.save(booking);
+        return booking;
+    }
 
-        log.info("[{}] Booking PENDING created for room {}", correlationId, roomId);
+    private Mono<Booking> runSaga(Booking booking) {
+        String correlationId = booking.getCorrelationId();
+        String requestId = booking.getRequestId();
+        Long roomId = booking.getRoomId();
 
         Map<String, String> payload = Map.of(
                 "requestId", requestId,
-                "startDate", start.toString(),
-                "endDate", end.toString()
+                "startDate", booking.getStartDate().toString(),
+                "endDate", booking.getEndDate().toString()
         );
 
-        try {
-            callHotel("/rooms/" + roomId + "/hold", payload, correlationId).block(timeout);
-            callHotel("/rooms/" + roomId + "/confirm", Map.of("requestId", requestId), correlationId).block(timeout);
-            booking.setStatus(Booking.Status.CONFIRMED);
-            bookingRepository.save(booking);
-            log.info("[{}] Booking CONFIRMED", correlationId);
-        } catch (Exception e) {
-            log.warn("[{}] Booking flow failed: {}", correlationId, e.toString());
-            try { callHotel("/rooms/" + roomId + "/release", Map.of("requestId", requestId), correlationId).block(timeout); } catch (Exception ignored) {}
-            booking.setStatus(Booking.Status.CANCELLED);
-            bookingRepository.save(booking);
-            log.info("[{}] Booking CANCELLED and compensated", correlationId);
-        }
+        Mono<Void> twoPhase = callHotel("/rooms/" + roomId + "/hold", payload, correlationId)
+                .then(callHotel("/rooms/" + roomId + "/confirm", Map.of("requestId", requestId), correlationId))
+                .then();
+        Mono<Void> reservation = !singlePhaseReserve || !reserveEndpoint.worthTrying() ? twoPhase
+                : callHotel("/rooms/" + roomId + "/reserve", payload, correlationId)
+                        .then()
+                        .onErrorResume(BookingService::isEndpointMissing, e -> {
+                            log.info("[{}] hotel-service has no /reserve, falling back to hold + confirm", correlationId);
+                            reserveEndpoint.missing();
+                            return twoPhase;
+                        });
 
-        return booking;
+        return reservation
+                .then(Mono.defer(() -> saveStatus(booking, Booking.Status.CONFIRMED)))
+                .doOnNext(saved -> log.info("[{}] Booking CONFIRMED", correlationId));
+    }
+
+    /**
+     * Auto-select path: hotel-service picks a free least-booked room and confirms it in one call,
+     * handing distinct rooms to concurrent requests. Older hotel-service versions without /rooms/allocate
+     * get a room picked from /rooms/available and the regular saga.
+     */
+    private Mono<Booking> runAllocation(Booking booking) {
+        String correlationId = booking.getCorrelationId();
+        log.info("[{}] Auto-selecting room", correlationId);
+
+        Mono<Booking> viaAvailable = Mono.defer(() ->
+                selectBestAvailableRoom(booking.getStartDate(), booking.getEndDate(), correlationId)
+                        .flatMap(selected -> {
+                            log.info("[{}] Auto-selected room ID: {}", correlationId, selected);
+                            booking.setRoomId(selected);
+                            return runSaga(booking);
+                        }));
+
+        Map<String, String> payload = Map.of(
+                "requestId", booking.getRequestId(),
+                "startDate", booking.getStartDate().toString(),
+                "endDate", booking.getEndDate().toString()
+        );
+        return !allocateEndpoint.worthTrying() ? viaAvailable
+                : postHotel("/rooms/allocate", payload, new ParameterizedTypeReference<ReservationOutcome>() {}, correlationId)
+                        .flatMap(lock -> {
+                            log.info("[{}] Auto-selected room ID: {}", correlationId, lock.roomId());
+                            booking.setRoomId(lock.roomId());
+                            return saveStatus(booking, Booking.Status.CONFIRMED);
+                        })
+                        .doOnNext(saved -> log.info("[{}] Booking CONFIRMED", correlationId))
+                        .onErrorResume(BookingService::isEndpointMissing, e -> {
+                            log.info("[{}] hotel-service has no /rooms/allocate, selecting from /rooms/available", correlationId);
+                            allocateEndpoint.missing();
+                            return viaAvailable;
+                        });
     }
 
-    private Long selectBestAvailableRoom(String correlationId) {
-        try {
-            List<RoomView> rooms = getRoomSuggestions().block(timeout);
+    // The release is queued with the CANCELLED status and delivered by OutboxRelay, off the request path.
+    private Mono<Booking> compensate(Booking booking, Throwable e) {
+        String correlationId = booking.getCorrelationId();
+        log.warn("[{}] Booking flow failed: {}", correlationId, e.toString());
+        return metrics.step("save-status", blocking(() -> outbox.cancel(booking, correlationId)))
+                .doOnNext(saved -> log.info("[{}] Booking CANCELLED, room release queued", correlationId));
+    }
+
+    /**
+     * Delivers a queued release; called by OutboxRelay.
+     */
+    public Mono<Void> releaseRoom(OutboxEvent event) {
+        return callHotel("/rooms/" + (event.getRoomId() == null ? 0 : event.getRoomId()) + "/release",
+                Map.of("requestId", event.getRequestId()), event.getCorrelationId())
+                .then();
+    }
+
+    /**
+     * Books a group of rooms with one bulk reserve call to hotel-service and one commit per phase.
+     * Every item stays idempotent by requestId; the result lists an outcome per item in request order.
+     * Invalid items get an error and are never written; a batch larger than booking.batch.max-size fails with 400.
+     */
+    public Mono<List<BatchItemResult>> createBookings(Long userId, List<CreateBookingRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " bookings per batch"));
+        }
+        String correlationId = UUID.randomUUID().toString();
+        List<String> requestIds = requests.stream()
+                .map(CreateBookingRequest::getRequestId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        return blocking(() -> bookingRepository.findByRequestIdIn(requestIds))
+                .flatMap(found -> {
+                    Map<String, Booking> bookings = new HashMap<>();
+                    Map<String, String> errors = new HashMap<>();
+                    found.forEach(b -> bookings.put(b.getRequestId(), b));
+
+                    List<Booking> pending = new ArrayList<>();
+                    for (CreateBookingRequest r : requests) {
+                        if (r.getRequestId() == null || bookings.containsKey(r.getRequestId()) || errors.containsKey(r.getRequestId())) {
+                            continue;
+                        }
+                        String invalid = validate(r.getRoomId(), r.getStartDate(), r.getEndDate(), r.isAutoSelect());
+                        if (invalid != null) {
+                            errors.put(r.getRequestId(), invalid);
+                            continue;
+                        }
+                        Long roomId = r.isAutoSelect() ? null : r.getRoomId();
+                        Booking booking = newBooking(userId, roomId, r.getStartDate(), r.getEndDate(), r.getRequestId(), correlationId);
+                        bookings.put(r.getRequestId(), booking);
+                        pending.add(booking);
+                    }
 
-            if (rooms == null || rooms.isEmpty()) {
-                log.error("[{}] No available rooms found", correlationId);
-                throw new IllegalStateException("No available rooms for the selected dates");
-            }
+                    Mono<List<Booking>> processed = pending.isEmpty() ? Mono.just(pending)
+                            : hotelAvailable().then(metrics.step("save-pending", blocking(() -> bookingRepository.saveAll(pending)))
+                                    .flatMap(saved -> Mono.defer(() -> reserveBatch(saved, correlationId))
+                                            .onErrorResume(e -> {
+                                                log.warn("[{}] Batch reservation failed: {}", correlationId, e.toString());
+                                                return metrics.step("save-status", blocking(() -> outbox.cancelAll(saved, correlationId)));
+                                            })));
+                    return processed.map(done -> {
+                        done.forEach(b -> {
+                            bookings.put(b.getRequestId(), b);
+                            metrics.outcome("batch", b.getStatus());
+                        });
+                        return requests.stream().map(r -> batchResult(r, bookings, errors)).toList();
+                    });
+                });
+    }
+
+    private Mono<List<Booking>> reserveBatch(List<Booking> pending, String correlationId) {
+        log.info("[{}] Batch of {} bookings PENDING", correlationId, pending.size());
+        List<Map<String, Object>> items = pending.stream()
+                .map(b -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("requestId", b.getRequestId());
+                    item.put("roomId", b.getRoomId());
+                    item.put("startDate", b.getStartDate().toString());
+                    item.put("endDate", b.getEndDate().toString());
+                    return item;
+                })
+                .toList();
 
-            RoomView selectedRoom = rooms.get(0);
-            log.info("[{}] Selected room {} with {} bookings",
-                    correlationId, selectedRoom.id(), selectedRoom.timesBooked());
+        Mono<List<Booking>> bulk = postHotel("/rooms/reserve-batch", items, new ParameterizedTypeReference<List<ReservationOutcome>>() {}, correlationId)
+                .map(outcomes -> {
+                    Map<String, ReservationOutcome> byRequest = new HashMap<>();
+                    outcomes.forEach(o -> byRequest.put(o.requestId(), o));
+                    pending.forEach(b -> {
+                        ReservationOutcome outcome = byRequest.get(b.getRequestId());
+                        boolean confirmed = outcome != null && "CONFIRMED".equals(outcome.status());
+                        if (confirmed && b.getRoomId() == null) {
+                            b.setRoomId(outcome.roomId());
+                        }
+                        b.setStatus(confirmed ? Booking.Status.CONFIRMED : Booking.Status.CANCELLED);
+                    });
+                    return pending;
+                })
+                .flatMap(done -> metrics.step("save-status", blocking(() -> bookingRepository.saveAll(done))))
+                .doOnNext(done -> log.info("[{}] Batch processed", correlationId));
 
-            return selectedRoom.id();
+        return bulk.onErrorResume(BookingService::isEndpointMissing, e -> {
+            log.info("[{}] hotel-service has no /rooms/reserve-batch, booking items one by one", correlationId);
+            return Flux.fromIterable(pending)
+                    .concatMap(this::process)
+                    .collectList();
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("[{}] Error fetching recommended rooms: {}", correlationId, e.getMessage());
-            throw new IllegalStateException("Unable to auto-select room: " + e.getMessage());
+    private static BatchItemResult batchResult(CreateBookingRequest r, Map<String, Booking> bookings, Map<String, String> errors) {
+        if (r.getRequestId() == null) {
+            return new BatchItemResult(null, null, r.getRoomId(), null, "requestId is required");
         }
+        Booking b = bookings.get(r.getRequestId());
+        if (b == null) {
+            return new BatchItemResult(r.getRequestId(), null, r.getRoomId(), null, errors.get(r.getRequestId()));
+        }
+        return new BatchItemResult(b.getRequestId(), b.getId(), b.getRoomId(), b.getStatus(), null);
     }
 
+    public record BatchItemResult(String requestId, Long bookingId, Long roomId, Booking.Status status, String error) {}
+
+    public record ReservationOutcome(String requestId, Long roomId, String status) {}
+
+    private Mono<Booking> saveStatus(Booking booking, Booking.Status status) {
+        booking.setStatus(status);
+        return metrics.step("save-status", blocking(() -> bookingRepository.save(booking)));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Long> selectBestAvailableRoom(LocalDate start, LocalDate end, String correlationId) {
+        return metrics.step("select-room", getAvailableRooms(start, end, 1))
+                .flatMap(rooms -> {
+                    if (rooms.isEmpty()) {
+                        log.error("[{}] No available rooms found", correlationId);
+                        return Mono.error(new IllegalStateException("No available rooms for the selected dates"));
+                    }
+                    RoomView selectedRoom = rooms.get(0);
+                    log.info("[{}] Selected room {} with {} bookings",
+                            correlationId, selectedRoom.id(), selectedRoom.timesBooked());
+                    return Mono.just(selectedRoom.id());
+                })
+                .onErrorMap(e -> {
+                    log.error("[{}] Error fetching available rooms: {}", correlationId, e.getMessage());
+                    return new IllegalStateException("Unable to auto-select room: " + e.getMessage());
+                });
+    }
+
+    /**
+     * Cancels in one local commit; the room release is queued in the same transaction and delivered by OutboxRelay.
+     */
     @Transactional
     public void cancelBooking(Booking booking) {
         String correlationId = UUID.randomUUID().toString();
@@ -129,43 +396,109 @@ public class BookingService {
 
         log.info("[{}] Cancelling booking {}", correlationId, booking.getId());
 
-        try {
-            callHotel("/rooms/" + booking.getRoomId() + "/release",
-                    Map.of("requestId", booking.getRequestId()),
-                    correlationId)
-                    .block(timeout);
-            log.info("[{}] Successfully released room {} for booking {}",
-                    correlationId, booking.getRoomId(), booking.getId());
-        } catch (Exception e) {
-            log.error("[{}] Failed to release room: {}", correlationId, e.getMessage());
+        outbox.cancel(booking, correlationId);
+        metrics.outcome("cancel", Booking.Status.CANCELLED);
+
+        log.info("[{}] Booking {} cancelled, release of room {} queued", correlationId, booking.getId(), booking.getRoomId());
+    }
+
+    /**
+     * 405, or a 404 with an error body as produced for an unmapped path. hotel-service answers a 404 about a room
+     * or a lock with an empty body, which is a domain outcome and not a reason to fall back.
+     */
+    private static boolean isEndpointMissing(Throwable e) {
+        if (!(e instanceof WebClientResponseException w)) {
+            return false;
+        }
+        return w.getStatusCode() == HttpStatus.METHOD_NOT_ALLOWED
+                || (w.getStatusCode() == HttpStatus.NOT_FOUND && !w.getResponseBodyAsString().isBlank());
+    }
+
+    /**
+     * When an optional hotel-service endpoint last answered as missing. Callers fall back while that is recent
+     * and try the endpoint again afterwards, e.g. once hotel-service has been upgraded.
+     */
+    private static final class EndpointProbe {
+        private final long reprobeNanos;
+        private final AtomicLong missingSince = new AtomicLong(Long.MIN_VALUE);
+
+        EndpointProbe(Duration reprobe) {
+            this.reprobeNanos = reprobe.toNanos();
         }
 
-        booking.setStatus(Booking.Status.CANCELLED);
-        bookingRepository.save(booking);
+        boolean worthTrying() {
+            long since = missingSince.get();
+            return since == Long.MIN_VALUE || System.nanoTime() - since >= reprobeNanos;
+        }
 
-        log.info("[{}] Booking {} cancelled", correlationId, booking.getId());
+        void missing() {
+            missingSince.set(System.nanoTime());
+        }
     }
 
     private Mono<String> callHotel(String path, Map<String, String> payload, String correlationId) {
-        return webClient.post()
+        return postHotel(path, payload, new ParameterizedTypeReference<String>() {}, correlationId);
+    }
+
+    private <T> Mono<T> postHotel(String path, Object payload, ParameterizedTypeReference<T> responseType, String correlationId) {
+        // The last path segment names the step: hold, confirm, reserve, release, allocate, reserve-batch.
+        String step = path.substring(path.lastIndexOf('/') + 1);
+        return metrics.step(step, guarded(webClient.post()
                 .uri(path)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(payload)
                 .header("X-Correlation-Id", correlationId)
                 .retrieve()
-                .bodyToMono(String.class)
-                .timeout(timeout)
-                .retryWhen(Retry.backoff(retries, Duration.ofMillis(300)).maxBackoff(Duration.ofSeconds(2)));
+                .bodyToMono(responseType)
+                .timeout(timeout))
+                .retryWhen(Retry.backoff(retries, Duration.ofMillis(300)).maxBackoff(Duration.ofSeconds(2))
+                        .filter(BookingService::isRetryable)
+                        .doBeforeRetry(signal -> metrics.retry(step))));
+    }
+
+    // Each attempt passes the bulkhead, then the circuit breaker; rejections by either are not retried.
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return call
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return !(e instanceof WebClientResponseException w && w.getStatusCode().is4xxClientError())
+                && !isRejected(e);
     }
 
     public record RoomView(Long id, String number, long timesBooked) {}
 
-    public Mono<java.util.List<RoomView>> getRoomSuggestions() {
+    /**
+     * Rooms that are actually free for the given dates, least booked first, filtered and sorted by hotel-service.
+     * This is the read on the auto-select booking path when /rooms/allocate is unavailable,
+     * so it is hedged and uses adaptive timeouts, see HedgedReads.
+     */
+    public Mono<List<RoomView>> getAvailableRooms(LocalDate start, LocalDate end, int limit) {
+        return hedgedReads.read("available", () -> webClient.get()
+                .uri(uri -> uri.path("/rooms/available")
+                        .queryParam("start", start)
+                        .queryParam("end", end)
+                        .queryParam("limit", limit)
+                        .build())
+                .retrieve()
+                .bodyToFlux(RoomView.class)
+                .collectList()
+                .transform(this::guarded));
+    }
+
+    /**
+     * Every room, least booked first. Not on any booking path, so it is not hedged.
+     */
+    public Mono<List<RoomView>> getRoomSuggestions() {
         return webClient.get()
                 .uri("/hotels/rooms")
                 .retrieve()
                 .bodyToFlux(RoomView.class)
                 .collectList()
+                .timeout(timeout)
+                .transform(this::guarded)
                 .map(list -> list.stream()
                         .sorted(java.util.Comparator.comparingLong(RoomView::timesBooked)
                                 .thenComparing(RoomView::id))
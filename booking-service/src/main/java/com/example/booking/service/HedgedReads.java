@@ -0,0 +1,153 @@
+package com.example.booking.service;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Idempotent hotel-service reads with timeouts taken from a rolling latency histogram per read
+ * (p99 of the last full window times a multiplier, between hotel.adaptive-timeout.min-ms and hotel.timeout-ms).
+ * With hotel.hedge.enabled a second request is sent once the first is slower than the window's p95;
+ * the first response wins and the other request is cancelled.
+ * Delays, timeouts and latencies all use one Scheduler's clock, so tests can run on virtual time.
+ */
+@Component
+public class HedgedReads {
+    private final BookingMetrics metrics;
+    private final boolean hedging;
+    private final long hedgeMinDelayMicros;
+    private final long windowMillis;
+    private final long minSamples;
+    private final double multiplier;
+    private final long minTimeoutMicros;
+    private final long maxTimeoutMicros;
+    private final Scheduler scheduler;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HedgedReads(
+            BookingMetrics metrics,
+            @Value("${hotel.hedge.enabled:false}") boolean hedging,
+            @Value("${hotel.hedge.min-delay-ms:10}") long hedgeMinDelayMs,
+            @Value("${hotel.adaptive-timeout.window-ms:30000}") long windowMillis,
+            @Value("${hotel.adaptive-timeout.min-samples:50}") long minSamples,
+            @Value("${hotel.adaptive-timeout.multiplier:2.0}") double multiplier,
+            @Value("${hotel.adaptive-timeout.min-ms:100}") long minTimeoutMs,
+            @Value("${hotel.timeout-ms}") long maxTimeoutMs
+    ) {
+        this(metrics, hedging, hedgeMinDelayMs, windowMillis, minSamples, multiplier, minTimeoutMs, maxTimeoutMs, Schedulers.parallel());
+    }
+
+    public HedgedReads(BookingMetrics metrics, boolean hedging, long hedgeMinDelayMs, long windowMillis, long minSamples,
+                       double multiplier, long minTimeoutMs, long maxTimeoutMs, Scheduler scheduler) {
+        this.metrics = metrics;
+        this.hedging = hedging;
+        this.hedgeMinDelayMicros = hedgeMinDelayMs * 1000;
+        this.windowMillis = windowMillis;
+        this.minSamples = minSamples;
+        this.multiplier = multiplier;
+        this.minTimeoutMicros = minTimeoutMs * 1000;
+        this.maxTimeoutMicros = maxTimeoutMs * 1000;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Runs the read built by call, at most twice; call must be safe to repeat.
+     */
+    public <T> Mono<T> read(String name, Supplier<Mono<T>> call) {
+        LatencyWindow window = windows.computeIfAbsent(name, k -> new LatencyWindow());
+        LatencyWindow.Snapshot snapshot = window.snapshot();
+        Mono<T> primary = attempt(window, snapshot, call);
+        if (!hedging || snapshot == null) {
+            return primary;
+        }
+        Duration delay = Duration.ofNanos(Math.max(snapshot.p95Micros(), hedgeMinDelayMicros) * 1000);
+        Mono<T> hedge = Mono.delay(delay, scheduler)
+                .then(Mono.defer(() -> {
+                    metrics.hedge(name, "sent");
+                    return attempt(window, snapshot, call);
+                }))
+                .doOnNext(value -> metrics.hedge(name, "won"));
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, HedgedReads::firstFailure);
+    }
+
+    private <T> Mono<T> attempt(LatencyWindow window, LatencyWindow.Snapshot snapshot, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long started = scheduler.now(TimeUnit.MICROSECONDS);
+            return call.get()
+                    .timeout(Duration.ofNanos(timeoutMicros(snapshot) * 1000), scheduler)
+                    .doOnNext(value -> window.record(scheduler.now(TimeUnit.MICROSECONDS) - started));
+        });
+    }
+
+    private long timeoutMicros(LatencyWindow.Snapshot snapshot) {
+        if (snapshot == null) {
+            return maxTimeoutMicros;
+        }
+        long adaptive = (long) (snapshot.p99Micros() * multiplier);
+        return Math.min(maxTimeoutMicros, Math.max(minTimeoutMicros, adaptive));
+    }
+
+    // firstWithValue reports "all sources failed" with the individual errors as its cause; surface the primary's.
+    private static Throwable firstFailure(NoSuchElementException e) {
+        if (e.getCause() == null) {
+            return e;
+        }
+        List<Throwable> failures = Exceptions.unwrapMultiple(e.getCause());
+        return failures.isEmpty() ? e : failures.get(0);
+    }
+
+    /**
+     * Latencies of successful reads; percentiles come from the last window with at least minSamples,
+     * a window with fewer samples is carried into the next one.
+     */
+    private final class LatencyWindow {
+        private final Recorder recorder = new Recorder(maxTimeoutMicros * 10, 2);
+        private volatile Snapshot snapshot;
+        private Histogram pending;
+        private volatile long rolledAt = scheduler.now(TimeUnit.MILLISECONDS);
+
+        record Snapshot(long p95Micros, long p99Micros) {}
+
+        void record(long micros) {
+            recorder.recordValue(Math.min(micros, maxTimeoutMicros * 10));
+        }
+
+        Snapshot snapshot() {
+            long now = scheduler.now(TimeUnit.MILLISECONDS);
+            if (now - rolledAt >= windowMillis) {
+                synchronized (this) {
+                    if (now - rolledAt >= windowMillis) {
+                        Histogram interval = recorder.getIntervalHistogram();
+                        if (pending == null) {
+                            pending = interval;
+                        } else {
+                            pending.add(interval);
+                        }
+                        if (pending.getTotalCount() >= minSamples) {
+                            snapshot = new Snapshot(pending.getValueAtPercentile(95), pending.getValueAtPercentile(99));
+                            pending = null;
+                        }
+                        rolledAt = now;
+                    }
+                }
+            }
+            return snapshot;
+        }
+    }
+}
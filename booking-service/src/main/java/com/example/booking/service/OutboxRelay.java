@@ -0,0 +1,111 @@
+package com.example.booking.service;
+
+import com.example.booking.model.OutboxEvent;
+import com.example.booking.repo.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers queued outbox events to hotel-service in batches. Releases are idempotent by requestId,
+ * so an event is retried with capped exponential backoff until hotel-service acknowledges it;
+ * 404 means there is nothing to release and counts as delivered.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private final OutboxEventRepository outboxRepository;
+    private final BookingService bookingService;
+    private final BookingMetrics metrics;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final ReentrantLock draining = new ReentrantLock();
+
+    public OutboxRelay(
+            OutboxEventRepository outboxRepository,
+            BookingService bookingService,
+            BookingMetrics metrics,
+            @Value("${booking.outbox.batch-size:100}") int batchSize,
+            @Value("${booking.outbox.concurrency:8}") int concurrency,
+            @Value("${booking.outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+            @Value("${booking.outbox.max-backoff-ms:60000}") long maxBackoffMs
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.bookingService = bookingService;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.interval-ms:1000}")
+    public void drain() {
+        draining.lock();
+        try {
+            List<OutboxEvent> due;
+            do {
+                due = outboxRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant.now(), PageRequest.of(0, batchSize));
+                if (!due.isEmpty() && deliver(due) == 0) {
+                    break;
+                }
+            } while (due.size() == batchSize);
+        } finally {
+            draining.unlock();
+        }
+    }
+
+    private int deliver(List<OutboxEvent> events) {
+        List<OutboxEvent> delivered = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        Flux.fromIterable(events)
+                .flatMap(event -> bookingService.releaseRoom(event)
+                        .then(Mono.just(true))
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(true))
+                        .onErrorResume(e -> {
+                            event.setLastError(truncate(e.toString()));
+                            return Mono.just(false);
+                        })
+                        .doOnNext(ok -> {
+                            synchronized (delivered) {
+                                (ok ? delivered : failed).add(event);
+                            }
+                        }), concurrency)
+                .blockLast();
+
+        delivered.forEach(e -> metrics.compensation(true));
+        failed.forEach(e -> {
+            metrics.compensation(false);
+            e.setAttempts(e.getAttempts() + 1);
+            e.setNextAttemptAt(Instant.now().plus(backoff(e.getAttempts())));
+            log.warn("[{}] Release for {} failed (attempt {}): {}", e.getCorrelationId(), e.getRequestId(), e.getAttempts(), e.getLastError());
+        });
+        outboxRepository.deleteAllInBatch(delivered);
+        outboxRepository.saveAll(failed);
+        return delivered.size();
+    }
+
+    // Error texts can carry whole response bodies; only the head fits the column.
+    private static String truncate(String error) {
+        return error.length() > OutboxEvent.LAST_ERROR_LENGTH ? error.substring(0, OutboxEvent.LAST_ERROR_LENGTH) : error;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.booking.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hashing with a configurable cost (security.password.cost), run on a small dedicated pool
+ * (security.password.threads, security.password.queue-capacity) so login storms cannot take every core
+ * away from booking traffic. Results are delivered as Monos, so the calling event-loop thread never waits for BCrypt.
+ * A full queue answers 503 instead of piling up more work.
+ */
+@Component
+public class PasswordHasher {
+    private final BookingMetrics metrics;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+
+    public PasswordHasher(
+            BookingMetrics metrics,
+            @Value("${security.password.cost:10}") int cost,
+            @Value("${security.password.threads:2}") int threads,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity
+    ) {
+        this.metrics = metrics;
+        this.cost = cost;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hash");
+    }
+
+    public Mono<String> hash(String password) {
+        return run("hash", () -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public Mono<Boolean> matches(String password, String hash) {
+        return run("verify", () -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * True when the stored hash was made with a different cost than the configured one.
+     */
+    public boolean needsRehash(String hash) {
+        // $2a$10$<salt+hash>
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private <T> Mono<T> run(String operation, Callable<T> work) {
+        return Mono.fromCallable(() -> metrics.passwordHash(operation, work))
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    metrics.passwordHashRejected();
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-ins, retry later");
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+        executor.shutdownNow();
+    }
+}
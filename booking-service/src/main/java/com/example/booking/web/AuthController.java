@@ -2,8 +2,10 @@ package com.example.booking.web;
 
 import com.example.booking.model.User;
 import com.example.booking.service.AuthService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
@@ -17,7 +19,7 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public User register(@RequestBody Map<String, Object> req) {
+    public Mono<User> register(@RequestBody Map<String, Object> req) {
         String username = (String) req.get("username");
         String password = (String) req.get("password");
         boolean admin = req.getOrDefault("admin", false) instanceof Boolean b && b;
@@ -25,8 +27,28 @@ public class AuthController {
     }
 
     @PostMapping("/auth")
-    public ResponseEntity<Map<String, String>> login(@RequestBody Map<String, String> req) {
-        String token = authService.login(req.get("username"), req.get("password"));
-        return ResponseEntity.ok(Map.of("access_token", token, "token_type", "Bearer"));
+    public Mono<ResponseEntity<Map<String, Object>>> login(@RequestBody Map<String, String> req) {
+        return authService.login(req.get("username"), req.get("password")).map(tokens -> ResponseEntity.ok(body(tokens)));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<Map<String, Object>>> refresh(@RequestBody Map<String, String> req) {
+        return authService.refresh(req.get("refresh_token"))
+                .map(tokens -> ResponseEntity.ok(body(tokens)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@RequestBody Map<String, String> req) {
+        return authService.logout(req.get("refresh_token"))
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().<Void>build()));
+    }
+
+    private static Map<String, Object> body(AuthService.Tokens tokens) {
+        return Map.of(
+                "access_token", tokens.accessToken(),
+                "token_type", "Bearer",
+                "expires_in", tokens.expiresIn(),
+                "refresh_token", tokens.refreshToken());
     }
 }
\ No newline at end of file
@@ -1,15 +1,23 @@
 package com.example.booking.web;
 
 import com.example.booking.model.Booking;
+import com.example.booking.model.BookingSummary;
 import com.example.booking.model.CreateBookingRequest;
 import com.example.booking.repo.BookingRepository;
 import com.example.booking.service.BookingService;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
@@ -26,7 +34,7 @@ public class BookingController {
     }
 
     @PostMapping
-    public Booking create(@AuthenticationPrincipal Jwt jwt, @RequestBody CreateBookingRequest req) {
+    public Mono<Booking> create(@AuthenticationPrincipal Jwt jwt, @RequestBody CreateBookingRequest req) {
         Long userId = Long.parseLong(jwt.getSubject());
         Long roomId = req.getRoomId();
         LocalDate start = req.getStartDate();
@@ -37,19 +45,75 @@ public class BookingController {
         return bookingService.createBooking(userId, roomId, start, end, requestId, autoSelect);
     }
 
-    @GetMapping
-    public List<Booking> myBookings(@AuthenticationPrincipal Jwt jwt) {
+    @PostMapping("/batch")
+    public Mono<List<BookingService.BatchItemResult>> createBatch(@AuthenticationPrincipal Jwt jwt, @RequestBody List<CreateBookingRequest> requests) {
         Long userId = Long.parseLong(jwt.getSubject());
-        return bookingRepository.findByUserId(userId);
+        return bookingService.createBookings(userId, requests);
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<List<Booking>> all(@AuthenticationPrincipal Jwt jwt) {
+    /**
+     * The caller's bookings as summaries, optionally only those starting within [from, to] and with the given statuses.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BookingSummary>> myBookings(@AuthenticationPrincipal Jwt jwt,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(required = false) List<Booking.Status> status,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        Long userId = Long.parseLong(jwt.getSubject());
+        if ((limit != null && Listing.invalid(after, limit)) || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BookingSummary> page = bookingRepository.findSummaries(userId, from, to, statuses(status),
+                after == null ? 0 : after, limit == null ? Limit.unlimited() : Limit.of(limit));
+        if (limit == null) {
+            return ResponseEntity.ok(page);
+        }
+        return Listing.page(page, limit, BookingSummary::id).body(page);
+    }
+
+    @GetMapping(produces = Listing.NDJSON)
+    public Flux<BookingSummary> streamMyBookings(@AuthenticationPrincipal Jwt jwt,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(required = false) List<Booking.Status> status) {
+        Long userId = Long.parseLong(jwt.getSubject());
+        Collection<Booking.Status> statuses = statuses(status);
+        return Listing.stream((after, size) -> bookingRepository.findSummaries(userId, from, to, statuses, after, Limit.of(size)),
+                BookingSummary::id);
+    }
+
+    private static Collection<Booking.Status> statuses(List<Booking.Status> status) {
+        return status == null || status.isEmpty() ? EnumSet.allOf(Booking.Status.class) : status;
+    }
+
+    @GetMapping(path = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Booking>> all(@AuthenticationPrincipal Jwt jwt,
+                                             @RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer limit) {
         String scope = jwt.getClaimAsString("scope");
-        if ("ADMIN".equals(scope)) {
+        if (!"ADMIN".equals(scope)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (limit == null) {
             return ResponseEntity.ok(bookingRepository.findAll());
         }
-        return ResponseEntity.status(403).build();
+        if (Listing.invalid(after, limit)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Booking> page = bookingRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, Limit.of(limit));
+        return Listing.page(page, limit, Booking::getId).body(page);
+    }
+
+    @GetMapping(path = "/all", produces = Listing.NDJSON)
+    public ResponseEntity<Flux<Booking>> streamAll(@AuthenticationPrincipal Jwt jwt) {
+        String scope = jwt.getClaimAsString("scope");
+        if (!"ADMIN".equals(scope)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(Listing.stream((after, size) -> bookingRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size)),
+                Booking::getId));
     }
 
     @GetMapping("/{id}")
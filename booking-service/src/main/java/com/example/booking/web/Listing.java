@@ -0,0 +1,53 @@
+package com.example.booking.web;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Helpers for list endpoints: keyset pages (?after=&limit=, next cursor in X-Next-Cursor)
+ * and NDJSON streams (Accept: application/x-ndjson). A stream reads the table in keyset batches,
+ * each its own short query off the event loop, and pulls the next batch only when the client keeps up.
+ */
+final class Listing {
+    static final String NDJSON = "application/x-ndjson";
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final int MAX_LIMIT = 1000;
+    static final int STREAM_BATCH = 500;
+
+    private Listing() {
+    }
+
+    static boolean invalid(Long after, int limit) {
+        return limit < 1 || limit > MAX_LIMIT || (after != null && after < 0);
+    }
+
+    /**
+     * A full page means there may be more; the cursor is then the last id of this page.
+     */
+    static <T> ResponseEntity.BodyBuilder page(List<T> items, int limit, Function<T, Long> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR, String.valueOf(id.apply(items.get(items.size() - 1))));
+        }
+        return response;
+    }
+
+    /**
+     * Streams every row; page is called with (afterId, batchSize) and must return rows with larger ids in id order.
+     */
+    static <T> Flux<T> stream(BiFunction<Long, Integer, List<T>> page, Function<T, Long> id) {
+        return batch(page, 0L)
+                .expand(rows -> rows.size() < STREAM_BATCH ? Mono.empty() : batch(page, id.apply(rows.get(rows.size() - 1))))
+                .flatMapIterable(rows -> rows, 1);
+    }
+
+    private static <T> Mono<List<T>> batch(BiFunction<Long, Integer, List<T>> page, long afterId) {
+        return Mono.fromCallable(() -> page.apply(afterId, STREAM_BATCH)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -2,57 +2,68 @@ package com.example.booking.web;
 
 import com.example.booking.model.User;
 import com.example.booking.repo.UserRepository;
+import com.example.booking.service.PasswordHasher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/user")
 @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
 public class UserAdminController {
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
 
-    public UserAdminController(UserRepository userRepository) {
+    public UserAdminController(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
     }
 
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody Map<String, Object> req) {
+    public Mono<ResponseEntity<User>> createUser(@RequestBody Map<String, Object> req) {
         String username = (String) req.get("username");
         String password = (String) req.get("password");
         boolean admin = req.getOrDefault("admin", false) instanceof Boolean b && b;
 
-        User u = new User();
-        u.setUsername(username);
-        u.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt()));
-        u.setRole(admin ? "ADMIN" : "USER");
-
-        User saved = userRepository.save(u);
-        return ResponseEntity.ok(saved);
+        return passwordHasher.hash(password).publishOn(Schedulers.boundedElastic()).map(hash -> {
+            User u = new User();
+            u.setUsername(username);
+            u.setPasswordHash(hash);
+            u.setRole(admin ? "ADMIN" : "USER");
+            return ResponseEntity.ok(userRepository.save(u));
+        });
     }
 
     @PatchMapping
-    public ResponseEntity<User> updateUser(@RequestBody Map<String, Object> req) {
+    public Mono<ResponseEntity<User>> updateUser(@RequestBody Map<String, Object> req) {
         Long userId = ((Number) req.get("userId")).longValue();
+        // The new password is hashed on the hashing pool before the user is loaded and saved.
+        Mono<Optional<String>> passwordHash = req.containsKey("password")
+                ? passwordHasher.hash((String) req.get("password")).map(Optional::of)
+                : Mono.just(Optional.empty());
 
-        return userRepository.findById(userId)
+        return passwordHash.publishOn(Schedulers.boundedElastic()).map(hash -> userRepository.findById(userId)
                 .map(user -> {
                     if (req.containsKey("username")) {
                         user.setUsername((String) req.get("username"));
                     }
-                    if (req.containsKey("password")) {
-                        user.setPasswordHash(BCrypt.hashpw((String) req.get("password"), BCrypt.gensalt()));
-                    }
+                    hash.ifPresent(user::setPasswordHash);
                     if (req.containsKey("admin")) {
                         boolean admin = req.get("admin") instanceof Boolean b && b;
                         user.setRole(admin ? "ADMIN" : "USER");
                     }
                     return ResponseEntity.ok(userRepository.save(user));
                 })
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     @DeleteMapping
@@ -61,9 +72,22 @@ public class UserAdminController {
         return ResponseEntity.ok().build();
     }
 
-    @GetMapping
-    public ResponseEntity<Map<String, Object>> list() {
-        return ResponseEntity.ok(Map.of("users", userRepository.findAll()));
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> list(@RequestParam(required = false) Long after,
+                                                    @RequestParam(required = false) Integer limit) {
+        if (limit == null) {
+            return ResponseEntity.ok(Map.of("users", userRepository.findAll()));
+        }
+        if (Listing.invalid(after, limit)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<User> page = userRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, Limit.of(limit));
+        return Listing.page(page, limit, User::getId).body(Map.of("users", page));
+    }
+
+    @GetMapping(produces = Listing.NDJSON)
+    public Flux<User> stream() {
+        return Listing.stream((after, size) -> userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size)), User::getId);
     }
 
     @GetMapping("/{id}")
@@ -36,7 +36,8 @@ public class BookingHttpIT {
             TestPropertyValues.of(
                     "hotel.base-url=http://localhost:" + port,
                     "hotel.timeout-ms=1000",
-                    "hotel.retries=1"
+                    "hotel.retries=1",
+                    "security.gateway.secret=it-gateway-secret"
             ).applyTo(context.getEnvironment());
         }
     }
@@ -88,6 +89,30 @@ public class BookingHttpIT {
                 .expectStatus().is2xxSuccessful()
                 .expectBody().jsonPath("$.status").isEqualTo("CONFIRMED");
     }
-}
 
+    @Test
+    void gatewayClaims_trustedOnlyWithGatewaySecret() {
+        String expires = Long.toString(Instant.now().plusSeconds(60).getEpochSecond());
+
+        webTestClient.get().uri("/bookings")
+                .header("X-Gateway-Secret", "it-gateway-secret")
+                .header("X-Auth-Subject", "100")
+                .header("X-Auth-Scope", "USER")
+                .header("X-Auth-Expires", expires)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/bookings")
+                .header("X-Gateway-Secret", "guessed")
+                .header("X-Auth-Subject", "100")
+                .header("X-Auth-Scope", "ADMIN")
+                .header("X-Auth-Expires", expires)
+                .exchange()
+                .expectStatus().isUnauthorized();
 
+        webTestClient.get().uri("/bookings")
+                .header("Authorization", "Bearer " + tokenUser())
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
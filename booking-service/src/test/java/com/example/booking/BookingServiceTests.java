@@ -1,20 +1,38 @@
 package com.example.booking;
 
 import com.example.booking.model.Booking;
+import com.example.booking.model.BookingSummary;
+import com.example.booking.model.CreateBookingRequest;
+import com.example.booking.model.OutboxEvent;
+import com.example.booking.model.User;
 import com.example.booking.repo.BookingRepository;
+import com.example.booking.repo.OutboxEventRepository;
+import com.example.booking.repo.UserRepository;
+import com.example.booking.service.AuthService;
 import com.example.booking.service.BookingService;
+import com.example.booking.service.OutboxRelay;
+import com.example.booking.web.BookingController;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 
@@ -31,7 +49,11 @@ public class BookingServiceTests {
             TestPropertyValues.of(
                     "hotel.base-url=http://localhost:" + port,
                     "hotel.timeout-ms=1000",
-                    "hotel.retries=1"
+                    "hotel.retries=1",
+                    "hotel.endpoint-reprobe-ms=0",
+                    "booking.outbox.interval-ms=3600000",
+                    "booking.outbox.initial-backoff-ms=1",
+                    "security.password.cost=5"
             ).applyTo(context.getEnvironment());
         }
     }
@@ -42,6 +64,27 @@ public class BookingServiceTests {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private CircuitBreaker hotelCircuitBreaker;
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @BeforeEach
     void resetWiremock() {
         WiremockInitializer.wireMockServer.resetAll();
@@ -57,7 +100,7 @@ public class BookingServiceTests {
         stubFor(post(urlPathMatching("/rooms/\\d+/hold")).willReturn(okJson("{}")));
         stubFor(post(urlPathMatching("/rooms/\\d+/confirm")).willReturn(okJson("{}")));
 
-        Booking b = bookingService.createBooking(1L, 10L, LocalDate.now(), LocalDate.now().plusDays(1), "r1");
+        Booking b = bookingService.createBooking(1L, 10L, LocalDate.now(), LocalDate.now().plusDays(1), "r1", false).block();
         Assertions.assertEquals(Booking.Status.CONFIRMED, b.getStatus());
     }
 
@@ -66,8 +109,56 @@ public class BookingServiceTests {
         stubFor(post(urlPathMatching("/rooms/\\d+/hold")).willReturn(serverError()));
         stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(okJson("{}")));
 
-        Booking b = bookingService.createBooking(2L, 11L, LocalDate.now(), LocalDate.now().plusDays(1), "r2");
+        Booking b = bookingService.createBooking(2L, 11L, LocalDate.now(), LocalDate.now().plusDays(1), "r2", false).block();
+        Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
+    }
+
+    @Test
+    void domainNotFoundOnReserve_cancelledWithoutFallback() {
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/reserve")).willReturn(aResponse().withStatus(404)));
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/(hold|confirm|release)")).willReturn(okJson("{}")));
+
+        Booking b = bookingService.createBooking(10L, 18L, LocalDate.now(), LocalDate.now().plusDays(1), "r10", false).block();
+        Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
+        WiremockInitializer.wireMockServer.verify(0, postRequestedFor(urlPathMatching("/rooms/\\d+/hold")));
+
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/reserve")).willReturn(aResponse().withStatus(405).withBody("Method Not Allowed")));
+        Booking fallback = bookingService.createBooking(10L, 18L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(3), "r11", false).block();
+        Assertions.assertEquals(Booking.Status.CONFIRMED, fallback.getStatus());
+        WiremockInitializer.wireMockServer.verify(1, postRequestedFor(urlPathMatching("/rooms/\\d+/hold")));
+    }
+
+    @Test
+    void autoSelect_fallsBackToAvailableOnlyWhenAllocateIsMissing() {
+        WiremockInitializer.wireMockServer.stubFor(post(urlEqualTo("/rooms/allocate")).willReturn(aResponse().withStatus(404)));
+        WiremockInitializer.wireMockServer.stubFor(get(urlPathEqualTo("/rooms/available"))
+                .willReturn(okJson("[{\"id\":19,\"number\":\"119\",\"timesBooked\":0}]")));
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/(reserve|release)")).willReturn(okJson("{}")));
+
+        Booking b = bookingService.createBooking(11L, null, LocalDate.now(), LocalDate.now().plusDays(1), "r12", true).block();
+        Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
+        WiremockInitializer.wireMockServer.verify(0, getRequestedFor(urlPathEqualTo("/rooms/available")));
+
+        WiremockInitializer.wireMockServer.stubFor(post(urlEqualTo("/rooms/allocate")).willReturn(aResponse().withStatus(405).withBody("Method Not Allowed")));
+        Booking fallback = bookingService.createBooking(11L, null, LocalDate.now(), LocalDate.now().plusDays(1), "r13", true).block();
+        Assertions.assertEquals(Booking.Status.CONFIRMED, fallback.getStatus());
+        Assertions.assertEquals(19L, fallback.getRoomId());
+        WiremockInitializer.wireMockServer.verify(postRequestedFor(urlEqualTo("/rooms/19/reserve")));
+    }
+
+    @Test
+    void autoSelect_lostAllocateResponseReleasedByRequestId() {
+        WiremockInitializer.wireMockServer.stubFor(post(urlEqualTo("/rooms/allocate"))
+                .willReturn(okJson("{\"requestId\":\"r14\",\"roomId\":20,\"status\":\"CONFIRMED\"}").withFixedDelay(2000)));
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(okJson("{}")));
+
+        Booking b = bookingService.createBooking(12L, null, LocalDate.now(), LocalDate.now().plusDays(1), "r14", true).block();
         Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
+
+        // The room hotel-service allocated is unknown here; the release finds it by requestId.
+        outboxRelay.drain();
+        WiremockInitializer.wireMockServer.verify(postRequestedFor(urlEqualTo("/rooms/0/release"))
+                .withRequestBody(equalToJson("{\"requestId\":\"r14\"}")));
     }
 
     @Test
@@ -75,7 +166,7 @@ public class BookingServiceTests {
         stubFor(post(urlPathMatching("/rooms/\\d+/hold")).willReturn(aResponse().withFixedDelay(2000).withStatus(200)));
         stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(okJson("{}")));
 
-        Booking b = bookingService.createBooking(3L, 12L, LocalDate.now(), LocalDate.now().plusDays(1), "r3");
+        Booking b = bookingService.createBooking(3L, 12L, LocalDate.now(), LocalDate.now().plusDays(1), "r3", false).block();
         Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
     }
 
@@ -84,8 +175,8 @@ public class BookingServiceTests {
         stubFor(post(urlPathMatching("/rooms/\\d+/hold")).willReturn(okJson("{}")));
         stubFor(post(urlPathMatching("/rooms/\\d+/confirm")).willReturn(okJson("{}")));
 
-        Booking b1 = bookingService.createBooking(4L, 13L, LocalDate.now(), LocalDate.now().plusDays(1), "r4");
-        Booking b2 = bookingService.createBooking(4L, 13L, LocalDate.now(), LocalDate.now().plusDays(1), "r4");
+        Booking b1 = bookingService.createBooking(4L, 13L, LocalDate.now(), LocalDate.now().plusDays(1), "r4", false).block();
+        Booking b2 = bookingService.createBooking(4L, 13L, LocalDate.now(), LocalDate.now().plusDays(1), "r4", false).block();
         Assertions.assertEquals(b1.getId(), b2.getId());
     }
 
@@ -99,6 +190,240 @@ public class BookingServiceTests {
         Assertions.assertEquals(2, res.size());
         Assertions.assertEquals(2L, res.get(0).id());
     }
-}
 
+    @Test
+    void batch_perItemOutcome() {
+        WiremockInitializer.wireMockServer.stubFor(post(urlEqualTo("/rooms/reserve-batch"))
+                .willReturn(okJson("[" +
+                        "{\"requestId\":\"b1\",\"roomId\":20,\"status\":\"CONFIRMED\"}," +
+                        "{\"requestId\":\"b2\",\"roomId\":21,\"status\":\"CONFLICT\"}]")));
+
+        List<BookingService.BatchItemResult> res = bookingService.createBookings(5L, List.of(
+                request("b1", 20L), request("b2", 21L), request(null, 22L))).block();
+        Assertions.assertEquals(3, res.size());
+        Assertions.assertEquals(Booking.Status.CONFIRMED, res.get(0).status());
+        Assertions.assertEquals(Booking.Status.CANCELLED, res.get(1).status());
+        Assertions.assertNotNull(res.get(2).error());
+
+        List<BookingService.BatchItemResult> again = bookingService.createBookings(5L, List.of(request("b1", 20L))).block();
+        Assertions.assertEquals(res.get(0).bookingId(), again.get(0).bookingId());
+        WiremockInitializer.wireMockServer.verify(1, postRequestedFor(urlEqualTo("/rooms/reserve-batch")));
+    }
+
+    @Test
+    void batch_invalidItemsNotWrittenAndOversizedRejected() {
+        CreateBookingRequest inverted = request("b3", 23L);
+        inverted.setEndDate(inverted.getStartDate().minusDays(1));
+        List<BookingService.BatchItemResult> res = bookingService.createBookings(5L, List.of(inverted)).block();
+        Assertions.assertEquals(1, res.size());
+        Assertions.assertNotNull(res.get(0).error());
+        Assertions.assertTrue(bookingRepository.findByRequestId("b3").isEmpty());
+
+        List<CreateBookingRequest> oversized = IntStream.rangeClosed(1, 101)
+                .mapToObj(i -> request("big-" + i, 30L))
+                .toList();
+        ResponseStatusException e = Assertions.assertThrows(ResponseStatusException.class, () ->
+                bookingService.createBookings(5L, oversized).block());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        Assertions.assertTrue(bookingRepository.findByRequestId("big-1").isEmpty());
+        WiremockInitializer.wireMockServer.verify(0, postRequestedFor(anyUrl()));
+    }
+
+    @Test
+    void failedSaga_recordsCompensationAndOutcome() {
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/(reserve|hold)")).willReturn(serverError()));
+        WiremockInitializer.wireMockServer.stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(okJson("{}")));
+        outboxRelay.drain();
+        double cancelled = meterRegistry.counter("booking.outcomes", "operation", "create", "status", "CANCELLED").count();
+        double released = meterRegistry.counter("booking.compensations", "result", "released").count();
+
+        Booking b = bookingService.createBooking(6L, 14L, LocalDate.now(), LocalDate.now().plusDays(1), "r6", false).block();
+        outboxRelay.drain();
+
+        Assertions.assertEquals(Booking.Status.CANCELLED, b.getStatus());
+        Assertions.assertEquals(cancelled + 1, meterRegistry.counter("booking.outcomes", "operation", "create", "status", "CANCELLED").count());
+        Assertions.assertEquals(released + 1, meterRegistry.counter("booking.compensations", "result", "released").count());
+        Assertions.assertNotNull(meterRegistry.find("booking.saga.step").tag("step", "release").timer());
+    }
+
+    @Test
+    void invalidRequest_rejectedBeforePendingIsWritten() {
+        ResponseStatusException inverted = Assertions.assertThrows(ResponseStatusException.class, () ->
+                bookingService.createBooking(9L, 17L, LocalDate.now().plusDays(1), LocalDate.now(), "r9", false).block());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, inverted.getStatusCode());
+        ResponseStatusException noDates = Assertions.assertThrows(ResponseStatusException.class, () ->
+                bookingService.createBooking(9L, 17L, null, null, "r9", false).block());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, noDates.getStatusCode());
+        ResponseStatusException noRoom = Assertions.assertThrows(ResponseStatusException.class, () ->
+                bookingService.createBooking(9L, null, LocalDate.now(), LocalDate.now().plusDays(1), "r9", false).block());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, noRoom.getStatusCode());
+
+        Assertions.assertTrue(bookingRepository.findByRequestId("r9").isEmpty());
+        WiremockInitializer.wireMockServer.verify(0, postRequestedFor(anyUrl()));
+    }
+
+    @Test
+    void cancel_releaseQueuedAndRetriedUntilDelivered() {
+        stubFor(post(urlPathMatching("/rooms/\\d+/(reserve|hold|confirm)")).willReturn(okJson("{}")));
+        Booking b = bookingService.createBooking(7L, 15L, LocalDate.now(), LocalDate.now().plusDays(1), "r7", false).block();
+        Assertions.assertEquals(Booking.Status.CONFIRMED, b.getStatus());
+
+        stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(serviceUnavailable()));
+        bookingService.cancelBooking(b);
+        Assertions.assertEquals(Booking.Status.CANCELLED, bookingRepository.findById(b.getId()).orElseThrow().getStatus());
+        WiremockInitializer.wireMockServer.verify(0, postRequestedFor(urlPathMatching("/rooms/\\d+/release")));
+
+        outboxRelay.drain();
+        List<OutboxEvent> queued = queuedFor("r7");
+        Assertions.assertEquals(1, queued.size());
+        Assertions.assertTrue(queued.get(0).getAttempts() >= 1);
+
+        stubFor(post(urlPathMatching("/rooms/\\d+/release")).willReturn(okJson("{}")));
+        outboxRelay.drain();
+        Assertions.assertTrue(queuedFor("r7").isEmpty());
+        WiremockInitializer.wireMockServer.verify(postRequestedFor(urlEqualTo("/rooms/15/release"))
+                .withRequestBody(equalToJson("{\"requestId\":\"r7\"}")));
+    }
+
+    @Test
+    void openCircuit_failsFastWith503() {
+        hotelCircuitBreaker.transitionToOpenState();
+        try {
+            ResponseStatusException e = Assertions.assertThrows(ResponseStatusException.class, () ->
+                    bookingService.createBooking(8L, 16L, LocalDate.now(), LocalDate.now().plusDays(1), "r8", false).block());
+            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+            Assertions.assertTrue(bookingRepository.findByRequestId("r8").isEmpty());
+            WiremockInitializer.wireMockServer.verify(0, postRequestedFor(anyUrl()));
+            Assertions.assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+                    .tag("name", "hotel-service").tag("state", "open").gauge().value());
+        } finally {
+            hotelCircuitBreaker.transitionToClosedState();
+        }
+    }
+
+    @Test
+    void circuitRejectionMidSaga_cancelledAndReportedAs503() {
+        // Half-open with every trial call taken: the up-front check passes, the first hotel call is rejected.
+        hotelCircuitBreaker.transitionToHalfOpenState();
+        while (hotelCircuitBreaker.tryAcquirePermission()) {
+        }
+        try {
+            ResponseStatusException e = Assertions.assertThrows(ResponseStatusException.class, () ->
+                    bookingService.createBooking(9L, 17L, LocalDate.now(), LocalDate.now().plusDays(1), "r15", false).block());
+            Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+            Assertions.assertEquals(Booking.Status.CANCELLED, bookingRepository.findByRequestId("r15").orElseThrow().getStatus());
+            Assertions.assertEquals(1, queuedFor("r15").size());
+        } finally {
+            hotelCircuitBreaker.transitionToClosedState();
+        }
+    }
+
+    @Test
+    void allBookings_keysetPagesAndNdjsonStream() {
+        List<Booking> rows = new ArrayList<>();
+        for (int i = 0; i < 1201; i++) {
+            Booking b = new Booking();
+            b.setRequestId("export-" + i);
+            b.setUserId(9L);
+            b.setRoomId(1L);
+            b.setStartDate(LocalDate.now());
+            b.setEndDate(LocalDate.now().plusDays(1));
+            b.setStatus(Booking.Status.CONFIRMED);
+            rows.add(b);
+        }
+        List<Long> ids = bookingRepository.saveAll(rows).stream().map(Booking::getId).toList();
+        Jwt admin = Jwt.withTokenValue("t").header("alg", "none").subject("1").claim("scope", "ADMIN").build();
+
+        ResponseEntity<List<Booking>> page = bookingController.all(admin, ids.get(0) - 1, 2);
+        Assertions.assertEquals(ids.subList(0, 2), page.getBody().stream().map(Booking::getId).toList());
+        Assertions.assertEquals(String.valueOf(ids.get(1)), page.getHeaders().getFirst("X-Next-Cursor"));
 
+        List<Long> streamed = bookingController.streamAll(admin).getBody().map(Booking::getId).collectList().block();
+        Assertions.assertTrue(streamed.containsAll(ids));
+        Assertions.assertEquals(streamed.stream().sorted().distinct().toList(), streamed);
+
+        Jwt user = Jwt.withTokenValue("t").header("alg", "none").subject("9").claim("scope", "USER").build();
+        Assertions.assertEquals(403, bookingController.streamAll(user).getStatusCode().value());
+        Assertions.assertEquals(ids, bookingController.streamMyBookings(user, null, null, null).map(BookingSummary::id).collectList().block());
+    }
+
+    @Test
+    void myBookings_filteredByDatesAndStatus() {
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        List<Booking> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Booking b = new Booking();
+            b.setRequestId("history-" + i);
+            b.setUserId(10L);
+            b.setRoomId(1L);
+            b.setStartDate(base.plusMonths(i));
+            b.setEndDate(base.plusMonths(i).plusDays(2));
+            b.setStatus(i % 2 == 0 ? Booking.Status.CONFIRMED : Booking.Status.CANCELLED);
+            rows.add(b);
+        }
+        List<Long> ids = bookingRepository.saveAll(rows).stream().map(Booking::getId).toList();
+        Jwt user = Jwt.withTokenValue("t").header("alg", "none").subject("10").claim("scope", "USER").build();
+
+        List<BookingSummary> all = bookingController.myBookings(user, null, null, null, null, null).getBody();
+        Assertions.assertEquals(ids, all.stream().map(BookingSummary::id).toList());
+
+        List<BookingSummary> confirmedInSpring = bookingController.myBookings(user, base.plusMonths(1), base.plusMonths(4),
+                List.of(Booking.Status.CONFIRMED), null, null).getBody();
+        Assertions.assertEquals(List.of(ids.get(2), ids.get(4)), confirmedInSpring.stream().map(BookingSummary::id).toList());
+        Assertions.assertEquals(base.plusMonths(2), confirmedInSpring.get(0).startDate());
+
+        ResponseEntity<List<BookingSummary>> page = bookingController.myBookings(user, base, null, null, null, 4);
+        Assertions.assertEquals(ids.subList(0, 4), page.getBody().stream().map(BookingSummary::id).toList());
+        Assertions.assertEquals(String.valueOf(ids.get(3)), page.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertEquals(400, bookingController.myBookings(user, base.plusDays(1), base, null, null, null).getStatusCode().value());
+    }
+
+    @Test
+    void login_rehashesPasswordStoredWithAnotherCost() {
+        User u = new User();
+        u.setUsername("rehash-user");
+        u.setPasswordHash(BCrypt.hashpw("secret", BCrypt.gensalt(4)));
+        u.setRole("USER");
+        userRepository.save(u);
+        long verified = meterRegistry.timer("auth.password.hash", "operation", "verify").count();
+
+        Assertions.assertNotNull(authService.login("rehash-user", "secret").block());
+        String upgraded = userRepository.findByUsername("rehash-user").orElseThrow().getPasswordHash();
+        Assertions.assertTrue(upgraded.startsWith("$2a$05$"));
+        Assertions.assertTrue(BCrypt.checkpw("secret", upgraded));
+
+        authService.login("rehash-user", "secret").block();
+        Assertions.assertEquals(upgraded, userRepository.findByUsername("rehash-user").orElseThrow().getPasswordHash());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> authService.login("rehash-user", "wrong").block());
+        Assertions.assertEquals(verified + 3, meterRegistry.timer("auth.password.hash", "operation", "verify").count());
+    }
+
+    @Test
+    void refresh_rotatesTokenUntilLogout() {
+        authService.register("refresh-user", "secret", false).block();
+        AuthService.Tokens login = authService.login("refresh-user", "secret").block();
+
+        AuthService.Tokens refreshed = authService.refresh(login.refreshToken()).block();
+        Assertions.assertNotNull(refreshed);
+        Assertions.assertNotEquals(login.refreshToken(), refreshed.refreshToken());
+        Assertions.assertNotNull(refreshed.accessToken());
+        Assertions.assertNull(authService.refresh(login.refreshToken()).block());
+
+        authService.logout(refreshed.refreshToken()).block();
+        Assertions.assertNull(authService.refresh(refreshed.refreshToken()).block());
+        Assertions.assertNull(authService.refresh("unknown").block());
+    }
+
+    private List<OutboxEvent> queuedFor(String requestId) {
+        return outboxRepository.findAll().stream().filter(e -> requestId.equals(e.getRequestId())).toList();
+    }
+
+    private static CreateBookingRequest request(String requestId, Long roomId) {
+        CreateBookingRequest r = new CreateBookingRequest();
+        r.setRequestId(requestId);
+        r.setRoomId(roomId);
+        r.setStartDate(LocalDate.now());
+        r.setEndDate(LocalDate.now().plusDays(1));
+        return r;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.booking;
+
+import com.example.booking.service.BookingMetrics;
+import com.example.booking.service.HedgedReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HedgedReadsTests {
+
+    private static final Duration GUARD = Duration.ofSeconds(5);
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualTimeScheduler clock = VirtualTimeScheduler.create();
+
+    @AfterEach
+    void disposeClock() {
+        clock.dispose();
+    }
+
+    private HedgedReads reads(boolean hedging) {
+        // 1 s windows with 5 samples on virtual time: p95/p99 of 5 ms, a 10 ms hedge delay and the 100 ms minimum timeout.
+        return new HedgedReads(new BookingMetrics(registry), hedging, 10, 1000, 5, 2.0, 100, 2000, clock);
+    }
+
+    private void warmUp(HedgedReads reads, String name) {
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 10; i++) {
+                StepVerifier.create(reads.read(name, () -> Mono.delay(Duration.ofMillis(5), clock).thenReturn("ok")))
+                        .then(() -> clock.advanceTimeBy(Duration.ofMillis(5)))
+                        .expectNext("ok")
+                        .expectComplete()
+                        .verify(GUARD);
+            }
+            clock.advanceTimeBy(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void slowPrimary_hedgeWins() {
+        HedgedReads reads = reads(true);
+        warmUp(reads, "rooms");
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(reads.read("rooms", () -> calls.getAndIncrement() == 0
+                        ? Mono.delay(Duration.ofSeconds(1), clock).thenReturn("slow")
+                        : Mono.just("fast")))
+                .then(() -> Assertions.assertEquals(1, calls.get()))
+                .then(() -> clock.advanceTimeBy(Duration.ofMillis(10)))
+                .expectNext("fast")
+                .expectComplete()
+                .verify(GUARD);
+
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(1.0, registry.counter("booking.hotel.hedges", "read", "rooms", "result", "won").count());
+    }
+
+    @Test
+    void adaptiveTimeout_cutsSlowReadBelowFixedTimeout() {
+        HedgedReads reads = reads(false);
+        warmUp(reads, "rooms");
+
+        // Only 100 ms of virtual time pass; with the fixed 2 s timeout no signal would arrive and verify would fail.
+        StepVerifier.create(reads.read("rooms", () -> Mono.delay(Duration.ofSeconds(1), clock).thenReturn("slow")))
+                .then(() -> clock.advanceTimeBy(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify(GUARD);
+    }
+
+    @Test
+    void bothAttemptsFail_primaryErrorSurfaces() {
+        HedgedReads reads = reads(true);
+        warmUp(reads, "rooms");
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(reads.read("rooms", () -> {
+                    String attempt = calls.getAndIncrement() == 0 ? "primary" : "hedge";
+                    return Mono.delay(Duration.ofMillis(20), clock).then(Mono.<String>error(new IllegalStateException(attempt)));
+                }))
+                .then(() -> clock.advanceTimeBy(Duration.ofMillis(30)))
+                .expectErrorMatches(e -> e instanceof IllegalStateException && "primary".equals(e.getMessage()))
+                .verify(GUARD);
+
+        Assertions.assertEquals(2, calls.get());
+    }
+}
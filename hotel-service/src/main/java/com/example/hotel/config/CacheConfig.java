@@ -0,0 +1,17 @@
+package com.example.hotel.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalog read cache (see CatalogCache). Caffeine size and TTL come from spring.cache.caffeine.spec,
+ * hit/miss counters are published by actuator as cache.gets / cache.puts.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String HOTELS = "hotels";
+    public static final String HOTEL = "hotel";
+    public static final String ROOMS = "rooms";
+    public static final String ROOM = "room";
+}
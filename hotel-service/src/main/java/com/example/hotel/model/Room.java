@@ -1,8 +1,13 @@
 package com.example.hotel.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_room_times_booked", columnList = "timesBooked, id"),
+        @Index(name = "idx_room_popularity", columnList = "timesBooked DESC, id")
+})
 public class Room {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,7 +21,9 @@ public class Room {
 
     private boolean available = true;
 
+    // Hotel without its rooms, so Hotel -> rooms -> hotel does not recurse; the proxy internals are skipped too.
     @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"rooms", "hibernateLazyInitializer", "handler"})
     private Hotel hotel;
 
     public Long getId() { return id; }
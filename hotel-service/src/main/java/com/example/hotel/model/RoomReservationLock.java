@@ -1,11 +1,16 @@
 package com.example.hotel.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
 @Table(uniqueConstraints = {
         @UniqueConstraint(name = "uk_lock_request", columnNames = {"requestId"})
+}, indexes = {
+        @Index(name = "idx_lock_room_status_dates", columnList = "roomId, status, startDate, endDate"),
+        @Index(name = "idx_lock_status_expires", columnList = "status, expiresAt"),
+        @Index(name = "idx_lock_status_end", columnList = "status, endDate")
 })
 public class RoomReservationLock {
     @Id
@@ -23,6 +28,9 @@ public class RoomReservationLock {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    // Set while HELD; an expired hold no longer blocks the dates and is released by HoldReaper.
+    private Instant expiresAt;
+
     public enum Status { HELD, RELEASED, CONFIRMED }
 
     public Long getId() { return id; }
@@ -37,6 +45,8 @@ public class RoomReservationLock {
     public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
 }
 
 
@@ -1,9 +1,26 @@
 package com.example.hotel.repo;
 
 import com.example.hotel.model.Hotel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
-}
+    List<Hotel> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 
+    @Query("select distinct h from Hotel h left join fetch h.rooms order by h.id")
+    List<Hotel> findAllWithRooms();
 
+    /**
+     * All hotels by id, read through a JDBC cursor; must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select h from Hotel h order by h.id")
+    Stream<Hotel> streamAll();
+}
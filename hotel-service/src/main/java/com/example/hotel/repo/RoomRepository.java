@@ -1,9 +1,82 @@
 package com.example.hotel.repo;
 
 import com.example.hotel.model.Room;
+import com.example.hotel.model.RoomReservationLock;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
-}
+    List<Room> findByAvailableTrueOrderByTimesBookedAscIdAsc();
+
+    List<Room> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Loads the room with SELECT ... FOR UPDATE. Claims for the same room are serialized on this row lock
+     * until commit, across all hotel-service instances.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> lockById(@Param("id") Long id);
 
+    /**
+     * Most booked first, ties by id; an index scan of idx_room_popularity that stops after the page.
+     */
+    @Query("select r from Room r left join fetch r.hotel order by r.timesBooked desc, r.id asc")
+    List<Room> findPopular(Pageable pageable);
 
+    @Query("select r from Room r left join fetch r.hotel order by r.id")
+    List<Room> findAllWithHotel();
+
+    /**
+     * All rooms by id, read through a JDBC cursor; must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select r from Room r order by r.id")
+    Stream<Room> streamAll();
+
+    @Query("""
+            select r from Room r
+            where r.available = true
+              and (:hotelId is null or r.hotel.id = :hotelId)
+              and r.capacity >= :minCapacity
+              and not exists (
+                  select l.id from RoomReservationLock l
+                  where l.roomId = r.id
+                    and l.status in :statuses
+                    and (l.expiresAt is null or l.expiresAt > :now)
+                    and l.startDate <= :endDate
+                    and l.endDate >= :startDate)
+            order by r.timesBooked asc, r.id asc
+            """)
+    List<Room> findAvailable(@Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate,
+                             @Param("hotelId") Long hotelId,
+                             @Param("minCapacity") int minCapacity,
+                             @Param("statuses") Collection<RoomReservationLock.Status> statuses,
+                             @Param("now") Instant now,
+                             Pageable pageable);
+
+    /**
+     * Atomic counter bump, so concurrent confirms of the same room never lose an increment.
+     * Pending changes are flushed first and the persistence context is cleared afterwards, so later reads see the new value.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Room r set r.timesBooked = r.timesBooked + :delta where r.id = :id")
+    int incrementTimesBooked(@Param("id") Long id, @Param("delta") long delta);
+}
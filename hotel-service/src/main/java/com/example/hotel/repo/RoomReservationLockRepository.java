@@ -1,20 +1,48 @@
 package com.example.hotel.repo;
 
 import com.example.hotel.model.RoomReservationLock;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RoomReservationLockRepository extends JpaRepository<RoomReservationLock, Long> {
     Optional<RoomReservationLock> findByRequestId(String requestId);
-    List<RoomReservationLock> findByRoomIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-            Long roomId,
-            List<RoomReservationLock.Status> statuses,
-            LocalDate endInclusive,
-            LocalDate startInclusive
-    );
-}
+    List<RoomReservationLock> findByRequestIdIn(Collection<String> requestIds);
+    List<RoomReservationLock> findByStatusInAndEndDateGreaterThanEqual(List<RoomReservationLock.Status> statuses, LocalDate endDate);
+    List<RoomReservationLock> findByStatusAndExpiresAtBefore(RoomReservationLock.Status status, Instant now, Pageable pageable);
 
+    /**
+     * Whether an unexpired HELD or a CONFIRMED lock of the room overlaps [startDate, endDate].
+     */
+    @Query("""
+            select count(l) > 0 from RoomReservationLock l
+            where l.roomId = :roomId
+              and l.status <> com.example.hotel.model.RoomReservationLock.Status.RELEASED
+              and (l.expiresAt is null or l.expiresAt > :now)
+              and l.startDate <= :endDate
+              and l.endDate >= :startDate
+            """)
+    boolean existsActiveOverlap(@Param("roomId") Long roomId,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate,
+                                @Param("now") Instant now);
 
+    /**
+     * Bulk HELD -> RELEASED. Rows confirmed in the meantime are left alone.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update RoomReservationLock l
+            set l.status = com.example.hotel.model.RoomReservationLock.Status.RELEASED, l.expiresAt = null
+            where l.id in :ids and l.status = com.example.hotel.model.RoomReservationLock.Status.HELD
+            """)
+    int releaseHeld(@Param("ids") Collection<Long> ids);
+}
@@ -1,10 +1,13 @@
 package com.example.hotel.security;
 
+import com.example.security.CachingJwtDecoder;
+import com.example.security.GatewayClaimsFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -14,21 +17,23 @@ import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${security.gateway.secret:}") String gatewaySecret) throws Exception {
+        GatewayClaimsFilter gatewayClaims = new GatewayClaimsFilter(gatewaySecret);
         http.csrf(csrf -> csrf.disable());
         http.authorizeHttpRequests(registry -> registry
                 .requestMatchers("/actuator/**", "/h2-console/**").permitAll()
                 .anyRequest().authenticated()
         );
-        http.oauth2ResourceServer(oauth2 -> oauth2.jwt());
+        http.addFilterBefore(gatewayClaims, BearerTokenAuthenticationFilter.class);
+        http.oauth2ResourceServer(oauth2 -> oauth2.bearerTokenResolver(gatewayClaims).jwt());
         http.headers(headers -> headers.frameOptions(frame -> frame.disable()));
         return http.build();
     }
 
     @Bean
-    public JwtDecoder jwtDecoder(@Value("${security.jwt.secret:dev-secret-please-change}") String secret) {
-        return NimbusJwtDecoder.withSecretKey(JwtSecretKeyProvider.getHmacKey(secret)).build();
+    public JwtDecoder jwtDecoder(@Value("${security.jwt.secret:dev-secret-please-change}") String secret,
+                                 @Value("${security.jwt.cache.max-size:10000}") long cacheSize) {
+        return new CachingJwtDecoder(NimbusJwtDecoder.withSecretKey(JwtSecretKeyProvider.getHmacKey(secret)).build(), cacheSize);
     }
 }
-
-
@@ -0,0 +1,82 @@
+package com.example.hotel.service;
+
+import com.example.hotel.config.CacheConfig;
+import com.example.hotel.model.Hotel;
+import com.example.hotel.model.Room;
+import com.example.hotel.repo.HotelRepository;
+import com.example.hotel.repo.RoomRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cached catalog reads, stored as immutable snapshots so no managed entity or lazy association outlives the read.
+ * Hotel and room writes in HotelService evict all entries; a booking evicts what shows the room's timesBooked.
+ */
+@Component
+public class CatalogCache {
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+
+    public CatalogCache(HotelRepository hotelRepository, RoomRepository roomRepository) {
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @Cacheable(CacheConfig.HOTELS)
+    @Transactional(readOnly = true)
+    public List<HotelEntry> hotels() {
+        return hotelRepository.findAllWithRooms().stream().map(HotelEntry::of).toList();
+    }
+
+    @Cacheable(CacheConfig.HOTEL)
+    @Transactional(readOnly = true)
+    public Optional<HotelEntry> hotel(Long id) {
+        return hotelRepository.findById(id).map(HotelEntry::of);
+    }
+
+    @Cacheable(CacheConfig.ROOMS)
+    @Transactional(readOnly = true)
+    public List<RoomEntry> rooms() {
+        return roomRepository.findAllWithHotel().stream().map(RoomEntry::of).toList();
+    }
+
+    @Cacheable(CacheConfig.ROOM)
+    @Transactional(readOnly = true)
+    public Optional<RoomEntry> room(Long id) {
+        return roomRepository.findById(id).map(RoomEntry::of);
+    }
+
+    /**
+     * Drops the room's entry and the lists and hotels that include it.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOM, key = "#roomId"),
+            @CacheEvict(cacheNames = {CacheConfig.HOTELS, CacheConfig.HOTEL, CacheConfig.ROOMS}, allEntries = true)
+    })
+    public void evictBooked(Long roomId) {
+    }
+
+    public record HotelRef(Long id, String name, String city, String address) {
+        static HotelRef of(Hotel h) {
+            return h == null ? null : new HotelRef(h.getId(), h.getName(), h.getCity(), h.getAddress());
+        }
+    }
+
+    public record RoomEntry(Long id, String number, int capacity, boolean available, long timesBooked, HotelRef hotel) {
+        static RoomEntry of(Room r) {
+            return new RoomEntry(r.getId(), r.getNumber(), r.getCapacity(), r.isAvailable(), r.getTimesBooked(), HotelRef.of(r.getHotel()));
+        }
+    }
+
+    public record HotelEntry(HotelRef hotel, List<RoomEntry> rooms) {
+        static HotelEntry of(Hotel h) {
+            return new HotelEntry(HotelRef.of(h), h.getRooms().stream().map(RoomEntry::of).toList());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.hotel.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Periodically releases HELD locks whose TTL has passed, e.g. when booking-service died between hold and confirm
+ * or its compensating release failed. Works in batches, one short transaction each.
+ * Each run also drops stays that have ended from the occupancy index.
+ */
+@Component
+public class HoldReaper {
+    private static final Logger log = LoggerFactory.getLogger(HoldReaper.class);
+
+    private final HotelService hotelService;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final int batchSize;
+
+    public HoldReaper(HotelService hotelService, RoomOccupancyIndex occupancyIndex,
+                      @Value("${hotel.hold-reaper.batch-size:500}") int batchSize) {
+        this.hotelService = hotelService;
+        this.occupancyIndex = occupancyIndex;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.hold-reaper.interval-ms:30000}")
+    public void reap() {
+        int total = 0;
+        int found;
+        do {
+            found = hotelService.releaseExpiredHolds(batchSize);
+            total += found;
+        } while (found == batchSize);
+        if (total > 0) {
+            log.info("Released {} expired holds", total);
+        }
+        int ended = occupancyIndex.dropEnded(LocalDate.now());
+        if (ended > 0) {
+            log.debug("Dropped {} ended stays from the occupancy index", ended);
+        }
+    }
+}
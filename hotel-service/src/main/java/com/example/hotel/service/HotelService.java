@@ -1,50 +1,174 @@
 package com.example.hotel.service;
 
+import com.example.hotel.config.CacheConfig;
 import com.example.hotel.model.Hotel;
 import com.example.hotel.model.Room;
 import com.example.hotel.model.RoomReservationLock;
 import com.example.hotel.repo.HotelRepository;
 import com.example.hotel.repo.RoomRepository;
 import com.example.hotel.repo.RoomReservationLockRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class HotelService {
+    public static final String CONFLICT = "CONFLICT";
+    public static final String INVALID = "INVALID";
+    private static final int ALLOCATION_WINDOW = 32;
+
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
     private final RoomReservationLockRepository lockRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final CatalogCache catalogCache;
+    private final EntityManager entityManager;
+    private final long holdTtlSeconds;
 
-    public HotelService(HotelRepository hotelRepository, RoomRepository roomRepository, RoomReservationLockRepository lockRepository) {
+    public HotelService(HotelRepository hotelRepository, RoomRepository roomRepository, RoomReservationLockRepository lockRepository,
+                        RoomOccupancyIndex occupancyIndex, CatalogCache catalogCache,
+                        EntityManager entityManager,
+                        @Value("${hotel.hold-ttl-seconds:300}") long holdTtlSeconds) {
         this.hotelRepository = hotelRepository;
         this.roomRepository = roomRepository;
         this.lockRepository = lockRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.catalogCache = catalogCache;
+        this.entityManager = entityManager;
+        this.holdTtlSeconds = holdTtlSeconds;
     }
 
-    public List<Hotel> listHotels() { return hotelRepository.findAll(); }
-    public Optional<Hotel> getHotel(Long id) { return hotelRepository.findById(id); }
+    /**
+     * Catalog reads are served from CatalogCache snapshots. The returned entities are new, detached copies.
+     */
+    public List<Hotel> listHotels() { return catalogCache.hotels().stream().map(this::toHotel).toList(); }
+    public Optional<Hotel> getHotel(Long id) { return catalogCache.hotel(id).map(this::toHotel); }
+    @CacheEvict(cacheNames = {CacheConfig.HOTELS, CacheConfig.HOTEL, CacheConfig.ROOMS, CacheConfig.ROOM}, allEntries = true)
     public Hotel saveHotel(Hotel h) { return hotelRepository.save(h); }
+    @CacheEvict(cacheNames = {CacheConfig.HOTELS, CacheConfig.HOTEL, CacheConfig.ROOMS, CacheConfig.ROOM}, allEntries = true)
     public void deleteHotel(Long id) { hotelRepository.deleteById(id); }
 
-    public List<Room> listRooms() { return roomRepository.findAll(); }
-    public Optional<Room> getRoom(Long id) { return roomRepository.findById(id); }
+    public List<Room> listRooms() { return catalogCache.rooms().stream().map(this::toRoom).toList(); }
+
+    /**
+     * Keyset pages by id: the next page starts after the last id of the previous one.
+     */
+    public List<Hotel> listHotels(long afterId, int limit) {
+        return hotelRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    public List<Room> listRooms(long afterId, int limit) {
+        return roomRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    /**
+     * Hands every hotel to the consumer in id order while reading through a cursor;
+     * each entity is detached once consumed, so memory stays flat whatever the table size.
+     */
+    @Transactional(readOnly = true)
+    public void forEachHotel(Consumer<Hotel> consumer) {
+        try (Stream<Hotel> hotels = hotelRepository.streamAll()) {
+            hotels.forEach(detachAfter(consumer));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachRoom(Consumer<Room> consumer) {
+        try (Stream<Room> rooms = roomRepository.streamAll()) {
+            rooms.forEach(detachAfter(consumer));
+        }
+    }
+
+    private <T> Consumer<T> detachAfter(Consumer<T> consumer) {
+        return entity -> {
+            consumer.accept(entity);
+            entityManager.detach(entity);
+        };
+    }
+    public Optional<Room> getRoom(Long id) { return catalogCache.room(id).map(this::toRoom); }
+    @CacheEvict(cacheNames = {CacheConfig.HOTELS, CacheConfig.HOTEL, CacheConfig.ROOMS, CacheConfig.ROOM}, allEntries = true)
     public Room saveRoom(Room r) { return roomRepository.save(r); }
+    @CacheEvict(cacheNames = {CacheConfig.HOTELS, CacheConfig.HOTEL, CacheConfig.ROOMS, CacheConfig.ROOM}, allEntries = true)
     public void deleteRoom(Long id) { roomRepository.deleteById(id); }
 
+    /**
+     * Every room, most booked first. Read from the room table, so all instances agree on the order.
+     */
+    public List<Room> getPopularRooms() {
+        return roomRepository.findPopular(Pageable.unpaged());
+    }
+
+    /**
+     * One page of the popularity order; the database stops reading after the page.
+     */
+    public List<Room> getPopularRooms(int page, int size) {
+        return roomRepository.findPopular(PageRequest.of(page, size));
+    }
+
+    private Room toRoom(CatalogCache.RoomEntry entry) {
+        return toRoom(entry, hotelOf(entry.hotel()));
+    }
+
+    private Room toRoom(CatalogCache.RoomEntry entry, Hotel hotel) {
+        Room room = new Room();
+        room.setId(entry.id());
+        room.setNumber(entry.number());
+        room.setCapacity(entry.capacity());
+        room.setAvailable(entry.available());
+        room.setTimesBooked(entry.timesBooked());
+        room.setHotel(hotel);
+        return room;
+    }
+
+    private Hotel toHotel(CatalogCache.HotelEntry entry) {
+        Hotel hotel = hotelOf(entry.hotel());
+        entry.rooms().forEach(room -> hotel.getRooms().add(toRoom(room, hotel)));
+        return hotel;
+    }
+
+    private static Hotel hotelOf(CatalogCache.HotelRef ref) {
+        if (ref == null) {
+            return null;
+        }
+        Hotel hotel = new Hotel();
+        hotel.setId(ref.id());
+        hotel.setName(ref.name());
+        hotel.setCity(ref.city());
+        hotel.setAddress(ref.address());
+        return hotel;
+    }
+
     public List<Room> getRecommendedRooms() {
-        return roomRepository.findAll().stream()
-                .filter(Room::getAvailable)
-                .sorted(Comparator
-                        .comparingLong(Room::getTimesBooked)
-                        .thenComparingLong(Room::getId))
-                .collect(Collectors.toList());
+        return roomRepository.findByAvailableTrueOrderByTimesBookedAscIdAsc();
+    }
+
+    /**
+     * Rooms free for the whole [startDate, endDate] range, least booked first.
+     * Filtering, the anti-join against active locks and the ordering all run in the database.
+     */
+    public List<Room> findAvailableRooms(LocalDate startDate, LocalDate endDate, Long hotelId, int minCapacity, int page, int limit) {
+        return roomRepository.findAvailable(startDate, endDate, hotelId, minCapacity,
+                List.of(RoomReservationLock.Status.HELD, RoomReservationLock.Status.CONFIRMED),
+                Instant.now(), PageRequest.of(page, limit));
     }
 
     @Transactional
@@ -53,44 +177,231 @@ public class HotelService {
         if (existing.isPresent()) {
             return existing.get();
         }
-          List<RoomReservationLock> conflicts = lockRepository
-                .findByRoomIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                        roomId,
-                        Arrays.asList(RoomReservationLock.Status.HELD, RoomReservationLock.Status.CONFIRMED),
-                        endDate,
-                        startDate
-                );
-        if (!conflicts.isEmpty()) {
+        validate(startDate, endDate);
+        return claim(requestId, roomId, startDate, endDate, RoomReservationLock.Status.HELD);
+    }
+
+    @Transactional
+    public RoomReservationLock confirmHold(String requestId) {
+        RoomReservationLock lock = lockRepository.findByRequestId(requestId)
+                .orElseThrow(() -> new IllegalStateException("Hold not found"));
+        return confirm(lock);
+    }
+
+    /**
+     * Single-round-trip variant of hold + confirm: checks conflicts, inserts the lock as CONFIRMED
+     * and bumps timesBooked in one transaction. Repeating the call with the same requestId is idempotent.
+     */
+    @Transactional
+    public RoomReservationLock reserveRoom(String requestId, Long roomId, LocalDate startDate, LocalDate endDate) {
+        Optional<RoomReservationLock> existing = lockRepository.findByRequestId(requestId);
+        if (existing.isPresent()) {
+            return confirm(existing.get());
+        }
+        validate(startDate, endDate);
+        RoomReservationLock lock = claim(requestId, roomId, startDate, endDate, RoomReservationLock.Status.CONFIRMED);
+        markBooked(roomId);
+        return lock;
+    }
+
+    /**
+     * Picks the least booked room that is free for the dates and confirms it for requestId.
+     * Candidates come from the database ordering, but each one is claimed under its row lock and re-checked,
+     * so concurrent requests for the same dates get distinct rooms instead of racing for the first one.
+     */
+    @Transactional
+    public RoomReservationLock allocateRoom(String requestId, LocalDate startDate, LocalDate endDate, Long hotelId, int minCapacity) {
+        Optional<RoomReservationLock> existing = lockRepository.findByRequestId(requestId);
+        if (existing.isPresent()) {
+            return confirm(existing.get());
+        }
+        validate(startDate, endDate);
+        RoomReservationLock lock = tryAllocate(requestId, startDate, endDate, hotelId, minCapacity);
+        if (lock == null) {
+            throw new IllegalStateException("Нет свободных номеров на указанные даты");
+        }
+        markBooked(lock.getRoomId());
+        return lock;
+    }
+
+    /**
+     * Bulk variant of reserveRoom for group bookings: one requestId lookup for the whole batch and a single commit.
+     * Items without a roomId get one from the allocator. Items are independent, a conflicting item does not fail the others;
+     * an item with invalid dates is reported as INVALID.
+     */
+    @Transactional
+    public List<ReservationOutcome> reserveRooms(List<ReservationItem> items) {
+        Map<String, RoomReservationLock> locks = lockRepository
+                .findByRequestIdIn(items.stream().map(ReservationItem::requestId).toList()).stream()
+                .collect(Collectors.toMap(RoomReservationLock::getRequestId, Function.identity()));
+        List<RoomReservationLock> changed = new ArrayList<>();
+        Map<Long, Long> bookedPerRoom = new HashMap<>();
+        List<ReservationOutcome> outcomes = new ArrayList<>(items.size());
+
+        for (ReservationItem item : items) {
+            RoomReservationLock lock = locks.get(item.requestId());
+            if (lock == null) {
+                if (invalidStay(item.startDate(), item.endDate()) != null) {
+                    outcomes.add(new ReservationOutcome(item.requestId(), item.roomId(), INVALID));
+                    continue;
+                }
+                lock = item.roomId() == null
+                        ? tryAllocate(item.requestId(), item.startDate(), item.endDate(), null, 0)
+                        : tryClaim(item.requestId(), item.roomId(), item.startDate(), item.endDate(), RoomReservationLock.Status.CONFIRMED);
+                if (lock == null) {
+                    outcomes.add(new ReservationOutcome(item.requestId(), item.roomId(), CONFLICT));
+                    continue;
+                }
+                locks.put(item.requestId(), lock);
+                bookedPerRoom.merge(lock.getRoomId(), 1L, Long::sum);
+            } else if (lock.getStatus() == RoomReservationLock.Status.HELD) {
+                if (!pinHold(lock)) {
+                    outcomes.add(new ReservationOutcome(item.requestId(), lock.getRoomId(), CONFLICT));
+                    continue;
+                }
+                lock.setStatus(RoomReservationLock.Status.CONFIRMED);
+                lock.setExpiresAt(null);
+                changed.add(lock);
+                bookedPerRoom.merge(lock.getRoomId(), 1L, Long::sum);
+            }
+            String status = lock.getStatus() == RoomReservationLock.Status.RELEASED ? CONFLICT : lock.getStatus().name();
+            outcomes.add(new ReservationOutcome(item.requestId(), lock.getRoomId(), status));
+        }
+
+        lockRepository.saveAll(changed);
+        bookedPerRoom.forEach((roomId, delta) -> {
+            roomRepository.incrementTimesBooked(roomId, delta);
+            evictBooked(roomId);
+        });
+        return outcomes;
+    }
+
+    public record ReservationItem(String requestId, Long roomId, LocalDate startDate, LocalDate endDate) {}
+
+    public record ReservationOutcome(String requestId, Long roomId, String status) {}
+
+    private RoomReservationLock tryAllocate(String requestId, LocalDate startDate, LocalDate endDate, Long hotelId, int minCapacity) {
+        for (int page = 0; ; page++) {
+            List<Room> candidates = findAvailableRooms(startDate, endDate, hotelId, minCapacity, page, ALLOCATION_WINDOW);
+            for (Room room : candidates) {
+                RoomReservationLock lock = tryClaim(requestId, room.getId(), startDate, endDate, RoomReservationLock.Status.CONFIRMED);
+                if (lock != null) {
+                    return lock;
+                }
+            }
+            if (candidates.size() < ALLOCATION_WINDOW) {
+                return null;
+            }
+        }
+    }
+
+    private RoomReservationLock claim(String requestId, Long roomId, LocalDate startDate, LocalDate endDate, RoomReservationLock.Status status) {
+        RoomReservationLock lock = tryClaim(requestId, roomId, startDate, endDate, status);
+        if (lock == null) {
             throw new IllegalStateException("Номер недоступен на указанные даты");
         }
+        return lock;
+    }
+
+    /**
+     * Claims the dates for requestId and inserts the lock, or returns null if they are taken.
+     * The occupancy index only short-cuts "definitely taken": a conflict it reports is trusted once the lock table
+     * confirms that request is still active. The decision itself is made by the lock table, checked under the room's
+     * row lock, so concurrent claims for one room are serialized across all instances.
+     */
+    private RoomReservationLock tryClaim(String requestId, Long roomId, LocalDate startDate, LocalDate endDate, RoomReservationLock.Status status) {
+        Instant now = Instant.now();
+        RoomOccupancyIndex.Interval taken = occupancyIndex.conflict(roomId, startDate, endDate);
+        if (taken != null && isActive(taken.requestId(), now)) {
+            return null;
+        }
+        if (roomRepository.lockById(roomId).isEmpty() || lockRepository.existsActiveOverlap(roomId, startDate, endDate, now)) {
+            return null;
+        }
+        Instant expiresAt = status == RoomReservationLock.Status.HELD ? now.plusSeconds(holdTtlSeconds) : null;
+        RoomOccupancyIndex.Interval claimed = occupancyIndex.occupy(roomId, requestId, startDate, endDate, expiresAt);
+        onRollback(() -> occupancyIndex.vacate(roomId, claimed));
         RoomReservationLock lock = new RoomReservationLock();
         lock.setRequestId(requestId);
         lock.setRoomId(roomId);
         lock.setStartDate(startDate);
         lock.setEndDate(endDate);
-        lock.setStatus(RoomReservationLock.Status.HELD);
+        lock.setStatus(status);
+        lock.setExpiresAt(expiresAt);
         return lockRepository.save(lock);
     }
 
-    @Transactional
-    public RoomReservationLock confirmHold(String requestId) {
-        RoomReservationLock lock = lockRepository.findByRequestId(requestId)
-                .orElseThrow(() -> new IllegalStateException("Hold not found"));
+    private boolean isActive(String requestId, Instant now) {
+        return lockRepository.findByRequestId(requestId)
+                .filter(lock -> lock.getStatus() != RoomReservationLock.Status.RELEASED)
+                .filter(lock -> lock.getExpiresAt() == null || lock.getExpiresAt().isAfter(now))
+                .isPresent();
+    }
+
+    private static void validate(LocalDate startDate, LocalDate endDate) {
+        String error = invalidStay(startDate, endDate);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    private static String invalidStay(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return "startDate and endDate are required";
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            return "startDate must not be in the past";
+        }
+        if (endDate.isBefore(startDate)) {
+            return "endDate must not be before startDate";
+        }
+        return null;
+    }
+
+    private RoomReservationLock confirm(RoomReservationLock lock) {
         if (lock.getStatus() == RoomReservationLock.Status.CONFIRMED) {
             return lock;
         }
         if (lock.getStatus() == RoomReservationLock.Status.RELEASED) {
             throw new IllegalStateException("Удержание уже снято");
         }
+        if (!pinHold(lock)) {
+            throw new IllegalStateException("Удержание истекло");
+        }
         lock.setStatus(RoomReservationLock.Status.CONFIRMED);
-
-        roomRepository.findById(lock.getRoomId()).ifPresent(room -> {
-            room.setTimesBooked(room.getTimesBooked() + 1);
-            roomRepository.save(room);
-        });
+        lock.setExpiresAt(null);
+        markBooked(lock.getRoomId());
         return lockRepository.save(lock);
     }
 
+    // A hold can only be confirmed before it expires. The expiry is checked under the room's row lock,
+    // so a claim for the same dates on another instance is ordered either before or after the confirm.
+    private boolean pinHold(RoomReservationLock lock) {
+        roomRepository.lockById(lock.getRoomId());
+        if (lock.getExpiresAt() != null && !lock.getExpiresAt().isAfter(Instant.now())) {
+            return false;
+        }
+        occupancyIndex.pin(lock.getRoomId(), lock.getRequestId(), lock.getStartDate(), lock.getEndDate());
+        return true;
+    }
+
+    private void markBooked(Long roomId) {
+        roomRepository.incrementTimesBooked(roomId, 1);
+        evictBooked(roomId);
+    }
+
+    // Evicted right away so this transaction reads the new count, and again after commit
+    // in case a concurrent read cached the old one in between.
+    private void evictBooked(Long roomId) {
+        catalogCache.evictBooked(roomId);
+        afterCommit(() -> catalogCache.evictBooked(roomId));
+    }
+
+    /**
+     * Releases the request's lock, HELD or CONFIRMED; repeating the call is a no-op. Only the owner of the requestId
+     * sends it, so a CONFIRMED lock is released too: that is how a booking whose reserve response was lost, or that
+     * was cancelled, gives the room back. A released CONFIRMED lock no longer counts in timesBooked.
+     */
     @Transactional
     public RoomReservationLock releaseHold(String requestId) {
         RoomReservationLock lock = lockRepository.findByRequestId(requestId)
@@ -98,10 +409,73 @@ public class HotelService {
         if (lock.getStatus() == RoomReservationLock.Status.RELEASED) {
             return lock;
         }
-        if (lock.getStatus() == RoomReservationLock.Status.CONFIRMED) {
-            return lock;
-        }
+        boolean confirmed = lock.getStatus() == RoomReservationLock.Status.CONFIRMED;
         lock.setStatus(RoomReservationLock.Status.RELEASED);
-        return lockRepository.save(lock);
+        lock.setExpiresAt(null);
+        RoomOccupancyIndex.Interval released = occupancyIndex.find(lock.getRoomId(), requestId, lock.getStartDate());
+        if (released != null) {
+            occupancyIndex.vacate(lock.getRoomId(), released);
+            onRollback(() -> occupancyIndex.occupy(lock.getRoomId(), requestId, released.start(), released.end(), released.expiresAt()));
+        }
+        RoomReservationLock saved = lockRepository.save(lock);
+        if (confirmed) {
+            roomRepository.incrementTimesBooked(lock.getRoomId(), -1);
+            evictBooked(lock.getRoomId());
+        }
+        return saved;
+    }
+
+    /**
+     * Releases up to batchSize expired holds with one bulk update and returns how many were found.
+     * Their index intervals are dropped after commit, unless the hold was confirmed in the meantime.
+     */
+    @Transactional
+    public int releaseExpiredHolds(int batchSize) {
+        List<RoomReservationLock> expired = lockRepository.findByStatusAndExpiresAtBefore(
+                RoomReservationLock.Status.HELD, Instant.now(), PageRequest.of(0, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = expired.stream().map(RoomReservationLock::getId).toList();
+        lockRepository.releaseHeld(ids);
+        List<RoomReservationLock> released = lockRepository.findAllById(ids).stream()
+                .filter(lock -> lock.getStatus() == RoomReservationLock.Status.RELEASED)
+                .toList();
+        afterCommit(() -> released.forEach(lock -> {
+            RoomOccupancyIndex.Interval interval = occupancyIndex.find(lock.getRoomId(), lock.getRequestId(), lock.getStartDate());
+            if (interval != null) {
+                occupancyIndex.vacate(lock.getRoomId(), interval);
+            }
+        }));
+        return expired.size();
+    }
+
+    // Released holds and cache evictions only reflect committed changes; without a transaction the change is already committed.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Index changes are applied eagerly so the same transaction sees them, and undone if it rolls back.
+    private static void onRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    undo.run();
+                }
+            }
+        });
     }
 }
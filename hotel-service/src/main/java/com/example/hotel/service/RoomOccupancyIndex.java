@@ -0,0 +1,179 @@
+package com.example.hotel.service;
+
+import com.example.hotel.model.RoomReservationLock;
+import com.example.hotel.repo.RoomReservationLockRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory occupancy of rooms by HELD and CONFIRMED locks.
+ * Active intervals of one room never overlap, so a TreeMap keyed by start date
+ * answers a conflict check with a single floorEntry lookup.
+ * Hold intervals carry their expiry and are dropped lazily once it passes, so an abandoned hold stops blocking
+ * the dates even before HoldReaper releases the row.
+ * Intervals that ended before today can no longer conflict: they are not loaded on startup
+ * and HoldReaper drops them with dropEnded, so the index only holds current and future stays.
+ * The index is local to one instance and only a pre-filter: HotelService re-checks every claim against the lock table
+ * under a row lock on the room, which stays the system of record. The index is rebuilt from it on startup.
+ */
+@Component
+public class RoomOccupancyIndex {
+    private static final Logger log = LoggerFactory.getLogger(RoomOccupancyIndex.class);
+
+    private final RoomReservationLockRepository lockRepository;
+    private final Map<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+
+    public RoomOccupancyIndex(RoomReservationLockRepository lockRepository) {
+        this.lockRepository = lockRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        List<RoomReservationLock> active = lockRepository.findByStatusInAndEndDateGreaterThanEqual(
+                List.of(RoomReservationLock.Status.HELD, RoomReservationLock.Status.CONFIRMED), LocalDate.now());
+        Instant now = Instant.now();
+        for (RoomReservationLock lock : active) {
+            Interval interval = new Interval(lock.getRequestId(), lock.getStartDate(), lock.getEndDate(), lock.getExpiresAt());
+            if (!interval.expired(now)) {
+                intervals(lock.getRoomId()).tryAdd(interval, now);
+            }
+        }
+        log.info("Occupancy index loaded with {} active locks", active.size());
+    }
+
+    public boolean isFree(Long roomId, LocalDate start, LocalDate end) {
+        RoomIntervals ri = rooms.get(roomId);
+        return ri == null || !ri.overlaps(start, end, Instant.now());
+    }
+
+    /**
+     * Atomically claims [start, end] for the room until expiresAt (null for no expiry).
+     * Returns the claimed interval, or null if the dates overlap a live one.
+     */
+    public Interval tryOccupy(Long roomId, String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        Interval interval = new Interval(requestId, start, end, expiresAt);
+        return intervals(roomId).tryAdd(interval, Instant.now()) ? interval : null;
+    }
+
+    /**
+     * The live interval overlapping [start, end], or null if the dates look free on this instance.
+     */
+    public Interval conflict(Long roomId, LocalDate start, LocalDate end) {
+        RoomIntervals ri = rooms.get(roomId);
+        return ri == null ? null : ri.overlapping(start, end, Instant.now());
+    }
+
+    /**
+     * Records a claim the lock table has already accepted. Overlapping intervals are stale, e.g. released
+     * by another instance, and are replaced.
+     */
+    public Interval occupy(Long roomId, String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        Interval interval = new Interval(requestId, start, end, expiresAt);
+        intervals(roomId).put(interval);
+        return interval;
+    }
+
+    /**
+     * Makes the request's interval permanent when a hold is confirmed.
+     */
+    public void pin(Long roomId, String requestId, LocalDate start, LocalDate end) {
+        occupy(roomId, requestId, start, end, null);
+    }
+
+    public void vacate(Long roomId, Interval interval) {
+        RoomIntervals ri = rooms.get(roomId);
+        if (ri != null) {
+            ri.remove(interval);
+        }
+    }
+
+    public Interval find(Long roomId, String requestId, LocalDate start) {
+        RoomIntervals ri = rooms.get(roomId);
+        return ri == null ? null : ri.find(requestId, start);
+    }
+
+    /**
+     * Removes intervals that ended before today; returns how many were removed.
+     */
+    public int dropEnded(LocalDate today) {
+        int dropped = 0;
+        for (RoomIntervals ri : rooms.values()) {
+            dropped += ri.dropEndedBefore(today);
+        }
+        return dropped;
+    }
+
+    private RoomIntervals intervals(Long roomId) {
+        return rooms.computeIfAbsent(roomId, id -> new RoomIntervals());
+    }
+
+    public record Interval(String requestId, LocalDate start, LocalDate end, Instant expiresAt) {
+        boolean expired(Instant now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+
+    private static final class RoomIntervals {
+        private final TreeMap<LocalDate, Interval> byStart = new TreeMap<>();
+
+        synchronized boolean overlaps(LocalDate start, LocalDate end, Instant now) {
+            return overlapping(start, end, now) != null;
+        }
+
+        synchronized Interval overlapping(LocalDate start, LocalDate end, Instant now) {
+            Map.Entry<LocalDate, Interval> floor = byStart.floorEntry(end);
+            while (floor != null && floor.getValue().expired(now)) {
+                byStart.remove(floor.getKey());
+                floor = byStart.floorEntry(end);
+            }
+            return floor != null && !floor.getValue().end().isBefore(start) ? floor.getValue() : null;
+        }
+
+        synchronized boolean tryAdd(Interval interval, Instant now) {
+            if (overlaps(interval.start(), interval.end(), now)) {
+                return false;
+            }
+            byStart.put(interval.start(), interval);
+            return true;
+        }
+
+        synchronized void put(Interval interval) {
+            Map.Entry<LocalDate, Interval> floor = byStart.floorEntry(interval.end());
+            while (floor != null && !floor.getValue().end().isBefore(interval.start())) {
+                byStart.remove(floor.getKey());
+                floor = byStart.floorEntry(interval.end());
+            }
+            byStart.put(interval.start(), interval);
+        }
+
+        synchronized void remove(Interval interval) {
+            byStart.remove(interval.start(), interval);
+        }
+
+        // Intervals never overlap, so ends ascend with starts and the ended ones are all at the head.
+        synchronized int dropEndedBefore(LocalDate today) {
+            int dropped = 0;
+            Map.Entry<LocalDate, Interval> first = byStart.firstEntry();
+            while (first != null && first.getValue().end().isBefore(today)) {
+                byStart.pollFirstEntry();
+                dropped++;
+                first = byStart.firstEntry();
+            }
+            return dropped;
+        }
+
+        synchronized Interval find(String requestId, LocalDate start) {
+            Interval interval = byStart.get(start);
+            return interval != null && interval.requestId().equals(requestId) ? interval : null;
+        }
+    }
+}
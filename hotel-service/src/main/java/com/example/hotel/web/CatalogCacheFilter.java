@@ -0,0 +1,51 @@
+package com.example.hotel.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Strong ETags and Cache-Control on catalog GETs under /hotels and /rooms, so clients and the gateway's
+ * response cache can revalidate with If-None-Match and get 304 without the body.
+ * The ETag is a hash of the rendered body; NDJSON streams are skipped since they would have to be buffered.
+ * /rooms/available changes with every booking, so it is sent with no-cache (revalidate every time) instead of max-age.
+ */
+@Component
+public class CatalogCacheFilter extends ShallowEtagHeaderFilter {
+    private final String catalogCacheControl;
+
+    public CatalogCacheFilter(@Value("${hotel.catalog.max-age-seconds:30}") long maxAgeSeconds) {
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).mustRevalidate().getHeaderValue();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!HttpMethod.GET.matches(request.getMethod())
+                || !(path.equals("/hotels") || path.startsWith("/hotels/") || path.startsWith("/rooms/"))) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(Listing.NDJSON);
+    }
+
+    @Override
+    protected boolean isEligibleForEtag(HttpServletRequest request, HttpServletResponse response,
+                                        int responseStatusCode, InputStream inputStream) {
+        boolean eligible = super.isEligibleForEtag(request, response, responseStatusCode, inputStream);
+        if (eligible && response.getHeader(HttpHeaders.CACHE_CONTROL) == null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, request.getRequestURI().equals("/rooms/available")
+                    ? CacheControl.noCache().getHeaderValue()
+                    : catalogCacheControl);
+        }
+        return eligible;
+    }
+}
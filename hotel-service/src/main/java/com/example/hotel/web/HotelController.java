@@ -3,9 +3,12 @@ package com.example.hotel.web;
 import com.example.hotel.model.Hotel;
 import com.example.hotel.model.Room;
 import com.example.hotel.service.HotelService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,13 +17,29 @@ import java.util.List;
 @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearer-jwt")
 public class HotelController {
     private final HotelService hotelService;
+    private final ObjectMapper objectMapper;
 
-    public HotelController(HotelService hotelService) {
+    public HotelController(HotelService hotelService, ObjectMapper objectMapper) {
         this.hotelService = hotelService;
+        this.objectMapper = objectMapper;
     }
 
-    @GetMapping
-    public List<Hotel> list() { return hotelService.listHotels(); }
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Hotel>> list(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
+        if (limit == null) {
+            return ResponseEntity.ok(hotelService.listHotels());
+        }
+        if (Listing.invalid(after, limit)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return Listing.page(hotelService.listHotels(after == null ? 0 : after, limit), limit, Hotel::getId);
+    }
+
+    @GetMapping(produces = Listing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return Listing.ndjson(objectMapper, hotelService::forEachHotel);
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<Hotel> get(@PathVariable Long id) {
@@ -49,8 +68,22 @@ public class HotelController {
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping("/rooms")
-    public List<Room> rooms() { return hotelService.listRooms(); }
+    @GetMapping(path = "/rooms", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<Room>> rooms(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
+        if (limit == null) {
+            return ResponseEntity.ok(hotelService.listRooms());
+        }
+        if (Listing.invalid(after, limit)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return Listing.page(hotelService.listRooms(after == null ? 0 : after, limit), limit, Room::getId);
+    }
+
+    @GetMapping(path = "/rooms", produces = Listing.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamRooms() {
+        return Listing.ndjson(objectMapper, hotelService::forEachRoom);
+    }
 }
 
 
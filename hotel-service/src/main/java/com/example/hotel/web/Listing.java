@@ -0,0 +1,59 @@
+package com.example.hotel.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Response helpers for list endpoints: keyset pages (?after=&limit=, next cursor in X-Next-Cursor)
+ * and NDJSON streams (Accept: application/x-ndjson), one JSON object per line.
+ */
+final class Listing {
+    static final String NDJSON = "application/x-ndjson";
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final int MAX_LIMIT = 1000;
+
+    private Listing() {
+    }
+
+    static boolean invalid(Long after, int limit) {
+        return limit < 1 || limit > MAX_LIMIT || (after != null && after < 0);
+    }
+
+    /**
+     * A full page means there may be more; the cursor is then the last id of this page.
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, Function<T, Long> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR, String.valueOf(id.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> ndjson(ObjectMapper mapper, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try {
+                source.accept(item -> {
+                    try {
+                        out.write(mapper.writeValueAsBytes(item));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+}
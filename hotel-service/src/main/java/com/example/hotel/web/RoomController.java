@@ -3,6 +3,7 @@ package com.example.hotel.web;
 import com.example.hotel.model.Room;
 import com.example.hotel.model.RoomReservationLock;
 import com.example.hotel.service.HotelService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +33,20 @@ public class RoomController {
         return ResponseEntity.ok(rooms);
     }
 
+    @GetMapping("/available")
+    public ResponseEntity<List<Room>> getAvailable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Long hotelId,
+            @RequestParam(defaultValue = "0") int minCapacity,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (end.isBefore(start) || page < 0 || limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelService.findAvailableRooms(start, end, hotelId, minCapacity, page, limit));
+    }
+
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
     @PostMapping
     public Room create(@RequestBody Room r) { return hotelService.saveRoom(r); }
@@ -62,11 +77,48 @@ public class RoomController {
         try {
             RoomReservationLock lock = hotelService.holdRoom(requestId, id, start, end);
             return ResponseEntity.ok(lock);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<RoomReservationLock> reserve(@PathVariable Long id, @RequestBody Map<String, String> req) {
+        String requestId = req.get("requestId");
+        LocalDate start = LocalDate.parse(req.get("startDate"));
+        LocalDate end = LocalDate.parse(req.get("endDate"));
+        try {
+            return ResponseEntity.ok(hotelService.reserveRoom(requestId, id, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (IllegalStateException e) {
             return ResponseEntity.status(409).build();
         }
     }
 
+    @PostMapping("/allocate")
+    public ResponseEntity<RoomReservationLock> allocate(@RequestBody Map<String, String> req) {
+        String requestId = req.get("requestId");
+        LocalDate start = LocalDate.parse(req.get("startDate"));
+        LocalDate end = LocalDate.parse(req.get("endDate"));
+        Long hotelId = req.get("hotelId") == null ? null : Long.valueOf(req.get("hotelId"));
+        int minCapacity = req.get("minCapacity") == null ? 0 : Integer.parseInt(req.get("minCapacity"));
+        try {
+            return ResponseEntity.ok(hotelService.allocateRoom(requestId, start, end, hotelId, minCapacity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    @PostMapping("/reserve-batch")
+    public List<HotelService.ReservationOutcome> reserveBatch(@RequestBody List<HotelService.ReservationItem> items) {
+        return hotelService.reserveRooms(items);
+    }
+
     @PostMapping("/{id}/confirm")
     public ResponseEntity<RoomReservationLock> confirm(@PathVariable Long id, @RequestBody Map<String, String> req) {
         String requestId = req.get("requestId");
@@ -1,29 +1,40 @@
 package com.example.hotel.web;
 
 import com.example.hotel.model.Room;
-import com.example.hotel.repo.RoomRepository;
+import com.example.hotel.service.HotelService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Comparator;
 import java.util.List;
 
 @RestController
 @RequestMapping("/stats")
 public class StatsController {
-    private final RoomRepository roomRepository;
+    private static final int DEFAULT_TOP = 20;
 
-    public StatsController(RoomRepository roomRepository) {
-        this.roomRepository = roomRepository;
+    private final HotelService hotelService;
+
+    public StatsController(HotelService hotelService) {
+        this.hotelService = hotelService;
     }
 
+    /**
+     * Every room, most booked first; with top and/or page only that page of the ranking.
+     */
     @GetMapping("/rooms/popular")
-    public List<Room> popularRooms() {
-        return roomRepository.findAll().stream()
-                .sorted(Comparator.comparingLong(Room::getTimesBooked).reversed())
-                .toList();
+    public ResponseEntity<List<Room>> popularRooms(@RequestParam(required = false) Integer top,
+                                                   @RequestParam(required = false) Integer page) {
+        if (top == null && page == null) {
+            return ResponseEntity.ok(hotelService.getPopularRooms());
+        }
+        int size = top == null ? DEFAULT_TOP : top;
+        int index = page == null ? 0 : page;
+        if (size < 1 || size > 1000 || index < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hotelService.getPopularRooms(index, size));
     }
 }
-
-
@@ -1,17 +1,29 @@
 package com.example.hotel;
 
+import com.example.hotel.config.CacheConfig;
 import com.example.hotel.model.Hotel;
 import com.example.hotel.model.Room;
 import com.example.hotel.model.RoomReservationLock;
 import com.example.hotel.repo.HotelRepository;
 import com.example.hotel.service.HotelService;
+import com.example.hotel.service.RoomOccupancyIndex;
+import com.example.hotel.web.HotelController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @SpringBootTest
 public class HotelAvailabilityTests {
@@ -22,6 +34,18 @@ public class HotelAvailabilityTests {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private HotelController hotelController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
     @Test
     @Transactional
     void holdConfirmRelease_idempotentFlow() {
@@ -50,8 +74,324 @@ public class HotelAvailabilityTests {
         Assertions.assertEquals(RoomReservationLock.Status.CONFIRMED, afterConfirm.getStatus());
 
         RoomReservationLock afterRelease = hotelService.releaseHold(req);
-        Assertions.assertEquals(RoomReservationLock.Status.CONFIRMED, afterRelease.getStatus());
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, afterRelease.getStatus());
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, hotelService.releaseHold(req).getStatus());
     }
-}
 
+    @Test
+    @Transactional
+    void releaseGivesBackConfirmedReservation() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("114");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+        Long roomId = r.getId();
+
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+
+        // Reserve went through but its response was lost: the booking is cancelled and the release sent.
+        hotelService.reserveRoom("req-19", roomId, s, e);
+        RoomReservationLock released = hotelService.releaseHold("req-19");
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, released.getStatus());
+        Assertions.assertEquals(0, hotelService.getRoom(roomId).orElseThrow().getTimesBooked());
+
+        RoomReservationLock rebooked = hotelService.reserveRoom("req-20", roomId, s, e);
+        Assertions.assertEquals(RoomReservationLock.Status.CONFIRMED, rebooked.getStatus());
+    }
+
+    @Test
+    @Transactional
+    void releasedDatesCanBeHeldAgain() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("103");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(3);
+
+        hotelService.holdRoom("req-2", r.getId(), s, e);
+        RoomReservationLock adjacent = hotelService.holdRoom("req-3", r.getId(), e.plusDays(1), e.plusDays(2));
+        Assertions.assertEquals(RoomReservationLock.Status.HELD, adjacent.getStatus());
+
+        Long roomId = r.getId();
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                hotelService.holdRoom("req-4", roomId, s.plusDays(1), s.plusDays(2)));
+
+        hotelService.releaseHold("req-2");
+        RoomReservationLock rebooked = hotelService.holdRoom("req-4", r.getId(), s.plusDays(1), s.plusDays(2));
+        Assertions.assertEquals(RoomReservationLock.Status.HELD, rebooked.getStatus());
+    }
+
+    @Test
+    @Transactional
+    void reserveConfirmsInOneStep() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("104");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+
+        RoomReservationLock l1 = hotelService.reserveRoom("req-5", r.getId(), s, e);
+        RoomReservationLock l2 = hotelService.reserveRoom("req-5", r.getId(), s, e);
+        Assertions.assertEquals(RoomReservationLock.Status.CONFIRMED, l1.getStatus());
+        Assertions.assertEquals(l1.getId(), l2.getId());
+        Assertions.assertEquals(1, hotelService.getRoom(r.getId()).orElseThrow().getTimesBooked());
+
+        Long roomId = r.getId();
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                hotelService.holdRoom("req-6", roomId, s.plusDays(1), e.plusDays(1)));
+    }
+
+    @Test
+    @Transactional
+    void reserveBatchReportsConflictsPerItem() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r1 = new Room();
+        r1.setHotel(h);
+        r1.setNumber("105");
+        r1.setCapacity(2);
+        r1 = hotelService.saveRoom(r1);
+        Room r2 = new Room();
+        r2.setHotel(h);
+        r2.setNumber("106");
+        r2.setCapacity(2);
+        r2 = hotelService.saveRoom(r2);
+
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+
+        List<HotelService.ReservationOutcome> outcomes = hotelService.reserveRooms(List.of(
+                new HotelService.ReservationItem("req-7", r1.getId(), s, e),
+                new HotelService.ReservationItem("req-8", r1.getId(), s.plusDays(1), e),
+                new HotelService.ReservationItem("req-9", r2.getId(), s, e)));
+
+        Assertions.assertEquals("CONFIRMED", outcomes.get(0).status());
+        Assertions.assertEquals(HotelService.CONFLICT, outcomes.get(1).status());
+        Assertions.assertEquals("CONFIRMED", outcomes.get(2).status());
+        Assertions.assertEquals(1, hotelService.getRoom(r1.getId()).orElseThrow().getTimesBooked());
+    }
+
+    @Test
+    @Transactional
+    void availableRoomsExcludeLockedDates() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room busy = new Room();
+        busy.setHotel(h);
+        busy.setNumber("107");
+        busy.setCapacity(2);
+        busy = hotelService.saveRoom(busy);
+        Room free = new Room();
+        free.setHotel(h);
+        free.setNumber("108");
+        free.setCapacity(2);
+        free.setTimesBooked(3);
+        free = hotelService.saveRoom(free);
 
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+        hotelService.holdRoom("req-10", busy.getId(), s, e);
+
+        List<Room> during = hotelService.findAvailableRooms(s.plusDays(1), e.plusDays(1), h.getId(), 0, 0, 10);
+        Assertions.assertEquals(List.of(free.getId()), during.stream().map(Room::getId).toList());
+
+        List<Room> after = hotelService.findAvailableRooms(e.plusDays(1), e.plusDays(2), h.getId(), 0, 0, 10);
+        Assertions.assertEquals(List.of(busy.getId(), free.getId()), after.stream().map(Room::getId).toList());
+    }
+
+    @Test
+    @Transactional
+    void allocateHandsOutDistinctRooms() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r1 = new Room();
+        r1.setHotel(h);
+        r1.setNumber("109");
+        r1.setCapacity(2);
+        r1 = hotelService.saveRoom(r1);
+        Room r2 = new Room();
+        r2.setHotel(h);
+        r2.setNumber("110");
+        r2.setCapacity(2);
+        r2 = hotelService.saveRoom(r2);
+
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+        Long hotelId = h.getId();
+
+        RoomReservationLock first = hotelService.allocateRoom("req-11", s, e, hotelId, 0);
+        RoomReservationLock again = hotelService.allocateRoom("req-11", s, e, hotelId, 0);
+        RoomReservationLock second = hotelService.allocateRoom("req-12", s.plusDays(1), e, hotelId, 0);
+
+        Assertions.assertEquals(first.getId(), again.getId());
+        Assertions.assertEquals(RoomReservationLock.Status.CONFIRMED, second.getStatus());
+        Assertions.assertEquals(List.of(r1.getId(), r2.getId()),
+                List.of(first.getRoomId(), second.getRoomId()).stream().sorted().toList());
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                hotelService.allocateRoom("req-13", s, e, hotelId, 0));
+
+        // Compensation for an allocate whose response was lost: released by requestId, the room is free again.
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, hotelService.releaseHold("req-11").getStatus());
+        Assertions.assertEquals(first.getRoomId(), hotelService.allocateRoom("req-13", s, e, hotelId, 0).getRoomId());
+    }
+
+    @Test
+    @Transactional
+    void lockTableDecidesConflictsTheIndexDoesNotKnow() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("112");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+        Long roomId = r.getId();
+
+        LocalDate s = LocalDate.now().plusDays(1);
+        LocalDate e = s.plusDays(2);
+
+        // Claimed on another instance: the lock row exists, this index has no interval for it.
+        hotelService.reserveRoom("req-15", roomId, s, e);
+        occupancyIndex.vacate(roomId, occupancyIndex.find(roomId, "req-15", s));
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                hotelService.holdRoom("req-16", roomId, s.plusDays(1), e));
+
+        // Released on another instance: this index still has the interval, the lock table does not.
+        occupancyIndex.occupy(roomId, "req-gone", e.plusDays(1), e.plusDays(3), null);
+        RoomReservationLock held = hotelService.holdRoom("req-17", roomId, e.plusDays(2), e.plusDays(3));
+        Assertions.assertEquals(RoomReservationLock.Status.HELD, held.getStatus());
+    }
+
+    @Test
+    @Transactional
+    void pastStaysAreRejected() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("113");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+        Long roomId = r.getId();
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                hotelService.holdRoom("req-18", roomId, yesterday, yesterday.plusDays(2)));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                hotelService.reserveRoom("req-18", roomId, yesterday, yesterday.plusDays(2)));
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                hotelService.allocateRoom("req-18", yesterday, yesterday.plusDays(2), null, 0));
+
+        List<HotelService.ReservationOutcome> outcomes = hotelService.reserveRooms(List.of(
+                new HotelService.ReservationItem("req-18", roomId, yesterday, yesterday.plusDays(2))));
+        Assertions.assertEquals(HotelService.INVALID, outcomes.get(0).status());
+    }
+
+    @Test
+    @Transactional
+    void cachedRoomIsEvictedByBookingsAndWrites() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("111");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+        Long roomId = r.getId();
+
+        hotelService.getRoom(roomId).orElseThrow();
+        Object cached = cacheManager.getCache(CacheConfig.ROOM).get(roomId).get();
+
+        hotelService.reserveRoom("req-14", roomId, LocalDate.now(), LocalDate.now().plusDays(1));
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.ROOM).get(roomId));
+        Assertions.assertEquals(1, hotelService.getRoom(roomId).orElseThrow().getTimesBooked());
+        Assertions.assertNotSame(cached, cacheManager.getCache(CacheConfig.ROOM).get(roomId).get());
+
+        r.setCapacity(4);
+        hotelService.saveRoom(r);
+        Assertions.assertEquals(4, hotelService.getRoom(roomId).orElseThrow().getCapacity());
+    }
+
+    @Test
+    void occupancyIndexDropsEndedStays() {
+        RoomOccupancyIndex index = new RoomOccupancyIndex(null);
+        LocalDate today = LocalDate.now();
+        Assertions.assertNotNull(index.tryOccupy(1L, "past", today.minusDays(5), today.minusDays(3), null));
+        Assertions.assertNotNull(index.tryOccupy(1L, "current", today.minusDays(1), today, null));
+        Assertions.assertNotNull(index.tryOccupy(1L, "future", today.plusDays(2), today.plusDays(4), null));
+
+        Assertions.assertEquals(1, index.dropEnded(today));
+        Assertions.assertNull(index.find(1L, "past", today.minusDays(5)));
+        Assertions.assertFalse(index.isFree(1L, today, today.plusDays(1)));
+        Assertions.assertFalse(index.isFree(1L, today.plusDays(3), today.plusDays(3)));
+        Assertions.assertEquals(0, index.dropEnded(today));
+    }
+
+    @Test
+    @Transactional
+    void roomsPageByKeysetAndStreamAsNdjson() throws IOException {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Room r = new Room();
+            r.setHotel(h);
+            r.setNumber("S" + i);
+            r.setCapacity(2);
+            ids.add(hotelService.saveRoom(r).getId());
+        }
+
+        ResponseEntity<List<Room>> first = hotelController.rooms(ids.get(0) - 1, 2);
+        Assertions.assertEquals(ids.subList(0, 2), first.getBody().stream().map(Room::getId).toList());
+        Assertions.assertEquals(String.valueOf(ids.get(1)), first.getHeaders().getFirst("X-Next-Cursor"));
+        ResponseEntity<List<Room>> second = hotelController.rooms(ids.get(1), 2);
+        Assertions.assertEquals(ids.subList(2, 3), second.getBody().stream().map(Room::getId).toList());
+        Assertions.assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+        Assertions.assertEquals(400, hotelController.rooms(null, 0).getStatusCode().value());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        hotelController.streamRooms().getBody().writeTo(out);
+        List<Long> streamed = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode room = objectMapper.readTree(line);
+            streamed.add(room.get("id").asLong());
+            Assertions.assertFalse(room.get("hotel").has("rooms"));
+        }
+        Assertions.assertTrue(streamed.containsAll(ids));
+        Assertions.assertEquals(streamed.stream().sorted().toList(), streamed);
+    }
+}
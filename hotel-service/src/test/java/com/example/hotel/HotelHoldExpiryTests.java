@@ -0,0 +1,59 @@
+package com.example.hotel;
+
+import com.example.hotel.model.Hotel;
+import com.example.hotel.model.Room;
+import com.example.hotel.model.RoomReservationLock;
+import com.example.hotel.repo.HotelRepository;
+import com.example.hotel.repo.RoomReservationLockRepository;
+import com.example.hotel.service.HotelService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@SpringBootTest(properties = "hotel.hold-ttl-seconds=0")
+public class HotelHoldExpiryTests {
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomReservationLockRepository lockRepository;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Test
+    @Transactional
+    void expiredHoldStopsBlockingAndIsReaped() {
+        Hotel h = new Hotel();
+        h.setName("H");
+        h.setCity("C");
+        h = hotelRepository.save(h);
+        Room r = new Room();
+        r.setHotel(h);
+        r.setNumber("301");
+        r.setCapacity(2);
+        r = hotelService.saveRoom(r);
+
+        Long roomId = r.getId();
+        LocalDate s = LocalDate.now();
+        LocalDate e = s.plusDays(2);
+
+        hotelService.holdRoom("exp-1", roomId, s, e);
+        Assertions.assertThrows(IllegalStateException.class, () -> hotelService.confirmHold("exp-1"));
+
+        RoomReservationLock overlapping = hotelService.holdRoom("exp-2", roomId, s.plusDays(1), e);
+        Assertions.assertEquals(RoomReservationLock.Status.HELD, overlapping.getStatus());
+        Assertions.assertEquals(List.of(roomId), hotelService.findAvailableRooms(s, e, h.getId(), 0, 0, 10).stream()
+                .map(Room::getId).toList());
+
+        Assertions.assertEquals(2, hotelService.releaseExpiredHolds(100));
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, lockRepository.findByRequestId("exp-1").orElseThrow().getStatus());
+        Assertions.assertEquals(RoomReservationLock.Status.RELEASED, lockRepository.findByRequestId("exp-2").orElseThrow().getStatus());
+    }
+}
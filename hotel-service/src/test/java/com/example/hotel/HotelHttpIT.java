@@ -1,20 +1,25 @@
 package com.example.hotel;
 
+import com.jayway.jsonpath.JsonPath;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -49,6 +54,25 @@ public class HotelHttpIT {
                         .content("{\"name\":\"H\",\"city\":\"C\",\"address\":\"A\"}"))
                 .andExpect(status().isOk());
     }
-}
 
+    @Test
+    void catalogGet_strongEtagRevalidatesWith304() throws Exception {
+        MvcResult created = mockMvc.perform(post("/hotels")
+                        .header("Authorization", "Bearer " + tokenAdmin())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"E\",\"city\":\"C\",\"address\":\"A\"}"))
+                .andReturn();
+        String id = JsonPath.read(created.getResponse().getContentAsString(), "$.id").toString();
+
+        String etag = mockMvc.perform(get("/hotels/" + id).header("Authorization", "Bearer " + tokenAdmin()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30, must-revalidate"))
+                .andReturn().getResponse().getHeader("ETag");
+        Assertions.assertTrue(etag.startsWith("\""), etag);
 
+        mockMvc.perform(get("/hotels/" + id)
+                        .header("Authorization", "Bearer " + tokenAdmin())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+}
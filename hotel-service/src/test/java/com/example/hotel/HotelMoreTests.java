@@ -5,6 +5,7 @@ import com.example.hotel.model.Room;
 import com.example.hotel.model.RoomReservationLock;
 import com.example.hotel.repo.HotelRepository;
 import com.example.hotel.service.HotelService;
+import com.example.hotel.web.StatsController;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +24,9 @@ public class HotelMoreTests {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private StatsController statsController;
+
     @Test
     @Transactional
     void dateConflictReturns409LikeBehavior() {
@@ -91,37 +95,14 @@ public class HotelMoreTests {
         hotelService.holdRoom("req-f", r2.getId(), LocalDate.now(), LocalDate.now().plusDays(1));
         hotelService.confirmHold("req-f");
 
-        List<Room> popular = new com.example.hotel.web.StatsController(new com.example.hotel.repo.RoomRepository() {
-            @Override public java.util.List<Room> findAll() { return java.util.List.of(r1, r2); }
-            @Override public java.util.List<Room> findAllById(Iterable<Long> longs) { return null; }
-            @Override public <S extends Room> java.util.List<S> saveAll(Iterable<S> entities) { return null; }
-            @Override public <S extends Room> S save(S entity) { return null; }
-            @Override public java.util.Optional<Room> findById(Long aLong) { return java.util.Optional.empty(); }
-            @Override public void deleteById(Long aLong) { }
-            @Override public void delete(Room entity) { }
-            @Override public long count() { return 0; }
-            @Override public void deleteAll() { }
-            @Override public boolean existsById(Long aLong) { return false; }
-            @Override public <S extends Room> S insert(S entity) { return null; }
-            @Override public <S extends Room> java.util.List<S> insert(Iterable<S> entities) { return null; }
-            @Override public <S extends Room> S saveAndFlush(S entity) { return null; }
-            @Override public <S extends Room> java.util.List<S> saveAllAndFlush(Iterable<S> entities) { return null; }
-            @Override public void deleteAllInBatch(Iterable<Room> entities) { }
-            @Override public void deleteAllByIdInBatch(Iterable<Long> longs) { }
-            @Override public void deleteAllInBatch() { }
-            @Override public Room getOne(Long aLong) { return null; }
-            @Override public Room getById(Long aLong) { return null; }
-            @Override public Room getReferenceById(Long aLong) { return null; }
-            @Override public <S extends Room> java.util.Optional<S> findOne(org.springframework.data.domain.Example<S> example) { return java.util.Optional.empty(); }
-            @Override public <S extends Room> java.util.List<S> findAll(org.springframework.data.domain.Example<S> example) { return null; }
-            @Override public <S extends Room> java.util.List<S> findAll(org.springframework.data.domain.Example<S> example, org.springframework.data.domain.Sort sort) { return null; }
-            @Override public <S extends Room> long count(org.springframework.data.domain.Example<S> example) { return 0; }
-            @Override public <S extends Room> boolean exists(org.springframework.data.domain.Example<S> example) { return false; }
-            @Override public java.util.List<Room> findAll(org.springframework.data.domain.Sort sort) { return java.util.List.of(r1, r2).stream().sorted(sort).toList(); }
-            @Override public org.springframework.data.domain.Page<Room> findAll(org.springframework.data.domain.Pageable pageable) { return null; }
-            @Override public void flush() { }
-        }).popularRooms();
+        List<Room> popular = statsController.popularRooms(null, null).getBody();
         Assertions.assertNotNull(popular);
+        List<Long> order = popular.stream().map(Room::getId).toList();
+        Assertions.assertTrue(order.indexOf(r1.getId()) < order.indexOf(r2.getId()));
+        Assertions.assertEquals(2, popular.get(order.indexOf(r1.getId())).getTimesBooked());
+        Assertions.assertEquals(h.getId(), popular.get(order.indexOf(r2.getId())).getHotel().getId());
+        Assertions.assertEquals(order.get(0), statsController.popularRooms(1, 0).getBody().get(0).getId());
+        Assertions.assertEquals(400, statsController.popularRooms(0, null).getStatusCode().value());
     }
 }
 
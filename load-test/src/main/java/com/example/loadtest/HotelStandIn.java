@@ -0,0 +1,74 @@
+package com.example.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.matching.UrlPattern;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * WireMock stand-in for the hotel-service endpoints used by the booking saga,
+ * same approach as BookingServiceTests.WiremockInitializer.
+ * Answers with a log-normal delay around the configured median and fails a share of calls with 503.
+ */
+final class HotelStandIn implements AutoCloseable {
+    private final WireMockServer server;
+
+    HotelStandIn(int medianLatencyMs, double failureRate) {
+        server = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(200)
+                .extensions(new FailureInjector(failureRate)));
+        server.start();
+
+        stub(urlPathMatching("/rooms/\\d+/(hold|confirm|reserve|release)"), "{}", medianLatencyMs);
+        stub(urlEqualTo("/rooms/allocate"), "{\"roomId\":1,\"status\":\"CONFIRMED\"}", medianLatencyMs);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private void stub(UrlPattern url, String body, int medianLatencyMs) {
+        server.stubFor(post(url).willReturn(medianLatencyMs > 0
+                ? okJson(body).withLogNormalRandomDelay(medianLatencyMs, 0.25)
+                : okJson(body)));
+    }
+
+    static final class FailureInjector extends ResponseDefinitionTransformer {
+        private final double failureRate;
+
+        FailureInjector(double failureRate) {
+            this.failureRate = failureRate;
+        }
+
+        @Override
+        public ResponseDefinition transform(Request request, ResponseDefinition response, FileSource files, Parameters parameters) {
+            if (failureRate <= 0 || ThreadLocalRandom.current().nextDouble() >= failureRate) {
+                return response;
+            }
+            return aResponse().withStatus(503).build();
+        }
+
+        @Override
+        public String getName() {
+            return "failure-injector";
+        }
+    }
+}
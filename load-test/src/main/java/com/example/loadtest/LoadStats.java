@@ -0,0 +1,55 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds) and outcome counters for one kind of request.
+ */
+final class LoadStats {
+    private static final long MAX_LATENCY_MICROS = 60_000_000L;
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    void record(long latencyMicros, String outcome) {
+        latency.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    long outcome(String outcome) {
+        LongAdder adder = outcomes.get(outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    Map<String, Object> toMap(long elapsedMillis) {
+        long count = count();
+        Map<String, Object> latencyMicros = new LinkedHashMap<>();
+        latencyMicros.put("p50", latency.getValueAtPercentile(50));
+        latencyMicros.put("p90", latency.getValueAtPercentile(90));
+        latencyMicros.put("p99", latency.getValueAtPercentile(99));
+        latencyMicros.put("p999", latency.getValueAtPercentile(99.9));
+        latencyMicros.put("max", latency.getMaxValue());
+        latencyMicros.put("mean", Math.round(latency.getMean()));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        outcomes.forEach((k, v) -> counts.put(k, v.sum()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("throughputPerSec", elapsedMillis == 0 ? 0 : count * 1000.0 / elapsedMillis);
+        result.put("cancelledRate", count == 0 ? 0 : (double) outcome("CANCELLED") / count);
+        result.put("latencyMicros", latencyMicros);
+        result.put("outcomes", counts);
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.loadtest;
+
+import com.example.booking.BookingServiceApplication;
+import com.example.booking.service.AuthService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives POST /bookings of an in-process booking-service against a WireMock hotel-service stand-in
+ * and writes latency percentiles, throughput and outcome counts per mode (manual / autoSelect) as JSON.
+ *
+ * Settings are system properties (loadtest.requests, loadtest.warmup, loadtest.concurrency,
+ * loadtest.auto-select-ratio, loadtest.rooms, loadtest.hotel-latency-ms, loadtest.hotel-failure-rate,
+ * loadtest.output); program arguments are passed to booking-service, e.g. --hotel.retries=0.
+ */
+public final class LoadTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String bookingsUrl;
+    private final String token;
+    private final double autoSelectRatio;
+    private final int rooms;
+
+    private LoadTest(String bookingsUrl, String token, double autoSelectRatio, int rooms) {
+        this.bookingsUrl = bookingsUrl;
+        this.token = token;
+        this.autoSelectRatio = autoSelectRatio;
+        this.rooms = rooms;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("loadtest.requests", 2000);
+        int warmup = Integer.getInteger("loadtest.warmup", 200);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        double autoSelectRatio = Double.parseDouble(System.getProperty("loadtest.auto-select-ratio", "0.5"));
+        int rooms = Integer.getInteger("loadtest.rooms", 100);
+        int hotelLatencyMs = Integer.getInteger("loadtest.hotel-latency-ms", 5);
+        double hotelFailureRate = Double.parseDouble(System.getProperty("loadtest.hotel-failure-rate", "0"));
+        Path output = Path.of(System.getProperty("loadtest.output", "load-test-result.json"));
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("requests", requests);
+        config.put("warmup", warmup);
+        config.put("concurrency", concurrency);
+        config.put("autoSelectRatio", autoSelectRatio);
+        config.put("rooms", rooms);
+        config.put("hotelLatencyMs", hotelLatencyMs);
+        config.put("hotelFailureRate", hotelFailureRate);
+
+        try (HotelStandIn hotel = new HotelStandIn(hotelLatencyMs, hotelFailureRate);
+             ConfigurableApplicationContext booking = startBooking(hotel.baseUrl(), args)) {
+            String bookingsUrl = "http://localhost:" + booking.getEnvironment().getProperty("local.server.port") + "/bookings";
+            AuthService auth = booking.getBean(AuthService.class);
+            auth.register("load-test", "load-test", false).block();
+            LoadTest test = new LoadTest(bookingsUrl, auth.login("load-test", "load-test").block().accessToken(), autoSelectRatio, rooms);
+
+            test.run("warmup", warmup, concurrency, new LoadStats(), new LoadStats(), new LoadStats());
+
+            LoadStats all = new LoadStats();
+            LoadStats manual = new LoadStats();
+            LoadStats autoSelect = new LoadStats();
+            long started = System.nanoTime();
+            test.run("run", requests, concurrency, all, manual, autoSelect);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("timestamp", Instant.now().toString());
+            result.put("config", config);
+            result.put("elapsedMillis", elapsedMillis);
+            result.put("all", all.toMap(elapsedMillis));
+            result.put("manual", manual.toMap(elapsedMillis));
+            result.put("autoSelect", autoSelect.toMap(elapsedMillis));
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), result);
+            System.out.println(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(result.get("all")));
+            System.out.println("Results written to " + output.toAbsolutePath());
+        }
+    }
+
+    // Passed as command-line arguments, which override application.yml; user arguments come last and win.
+    private static ConfigurableApplicationContext startBooking(String hotelBaseUrl, String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--hotel.base-url=" + hotelBaseUrl,
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--spring.cloud.discovery.enabled=false",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN"));
+        arguments.addAll(List.of(args));
+        return new SpringApplicationBuilder(BookingServiceApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    private void run(String phase, int count, int concurrency, LoadStats all, LoadStats manual, LoadStats autoSelect)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                    boolean auto = (i % 100) < autoSelectRatio * 100;
+                    long started = System.nanoTime();
+                    String outcome = send(phase + "-" + i, i, auto);
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+                    all.record(micros, outcome);
+                    (auto ? autoSelect : manual).record(micros, outcome);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private String send(String requestId, int i, boolean autoSelect) {
+        LocalDate start = LocalDate.now().plusDays(1 + i % 365);
+        String body = autoSelect
+                ? String.format("{\"requestId\":\"%s\",\"startDate\":\"%s\",\"endDate\":\"%s\",\"autoSelect\":true}",
+                        requestId, start, start.plusDays(1))
+                : String.format("{\"requestId\":\"%s\",\"roomId\":%d,\"startDate\":\"%s\",\"endDate\":\"%s\",\"autoSelect\":false}",
+                        requestId, 1 + i % rooms, start, start.plusDays(1));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(bookingsUrl))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                return "HTTP_" + response.statusCode();
+            }
+            return MAPPER.readTree(response.body()).path("status").asText("UNKNOWN");
+        } catch (IOException e) {
+            return "IO_ERROR";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "INTERRUPTED";
+        }
+    }
+}
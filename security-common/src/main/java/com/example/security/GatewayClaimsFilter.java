@@ -0,0 +1,93 @@
+package com.example.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+
+import static com.example.security.GatewayHeaders.EXPIRES;
+import static com.example.security.GatewayHeaders.SCOPE;
+import static com.example.security.GatewayHeaders.SECRET;
+import static com.example.security.GatewayHeaders.SUBJECT;
+import static com.example.security.GatewayHeaders.USERNAME;
+
+/**
+ * Authenticates requests forwarded by api-gateway from the claims it already verified (X-Auth-* headers),
+ * so the bearer token is not decoded a second time. Headers are trusted only when security.gateway.secret
+ * is set and the request carries the same value in X-Gateway-Secret; everything else goes through the JWT decoder.
+ * Used by the servlet services (hotel-service, booking-service); api-gateway has the reactive counterpart that sets the headers.
+ */
+public class GatewayClaimsFilter extends OncePerRequestFilter implements BearerTokenResolver {
+    private final byte[] secret;
+    private final BearerTokenResolver bearerTokens = new DefaultBearerTokenResolver();
+    private final JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+    private final SecurityContextHolderStrategy contexts = SecurityContextHolder.getContextHolderStrategy();
+
+    public GatewayClaimsFilter(String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (trusted(request)) {
+            SecurityContext context = contexts.createEmptyContext();
+            context.setAuthentication(converter.convert(jwt(request)));
+            contexts.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Hides the bearer token from the resource server when the gateway claims are trusted.
+     */
+    @Override
+    public String resolve(HttpServletRequest request) {
+        return trusted(request) ? null : bearerTokens.resolve(request);
+    }
+
+    boolean trusted(HttpServletRequest request) {
+        String presented = request.getHeader(SECRET);
+        if (secret.length == 0 || presented == null || request.getHeader(SUBJECT) == null) {
+            return false;
+        }
+        if (!MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        String expires = request.getHeader(EXPIRES);
+        try {
+            return expires != null && Instant.ofEpochSecond(Long.parseLong(expires)).isAfter(Instant.now());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Jwt jwt(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        String token = authorization != null && authorization.startsWith("Bearer ") && authorization.length() > 7 ? authorization.substring(7) : "gateway";
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject(request.getHeader(SUBJECT))
+                .expiresAt(Instant.ofEpochSecond(Long.parseLong(request.getHeader(EXPIRES))));
+        if (request.getHeader(SCOPE) != null) {
+            jwt.claim("scope", request.getHeader(SCOPE));
+        }
+        if (request.getHeader(USERNAME) != null) {
+            jwt.claim("username", request.getHeader(USERNAME));
+        }
+        return jwt.build();
+    }
+}
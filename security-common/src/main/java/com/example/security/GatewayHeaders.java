@@ -0,0 +1,16 @@
+package com.example.security;
+
+/**
+ * Headers api-gateway uses to forward the claims of a token it has already verified.
+ * Written by the gateway's claims filter, read by GatewayClaimsFilter in the services.
+ */
+public final class GatewayHeaders {
+    public static final String SECRET = "X-Gateway-Secret";
+    public static final String SUBJECT = "X-Auth-Subject";
+    public static final String SCOPE = "X-Auth-Scope";
+    public static final String USERNAME = "X-Auth-Username";
+    public static final String EXPIRES = "X-Auth-Expires";
+
+    private GatewayHeaders() {
+    }
+}